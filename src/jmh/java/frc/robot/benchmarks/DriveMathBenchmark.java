@@ -0,0 +1,99 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.units.measure.Distance;
+import frc.robot.Constants;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.DriveKinematics;
+import frc.robot.util.Utilities;
+
+/**
+ * Benchmarks the drive math that runs every loop. The WPILib versions are
+ * kept as a baseline; with the gc profiler the DriveKinematics ones should
+ * show no allocation. toChassisSpeedsCopy() shows the one ChassisSpeeds the
+ * public DriveSubsystem.getChassisSpeeds() allocates per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveMathBenchmark {
+    private MecanumDriveKinematics kinematics;
+    private DriveKinematics driveKinematics;
+    private final ChassisSpeeds chassisSpeeds = new ChassisSpeeds();
+    private final MecanumDriveWheelSpeeds wheelSpeeds = new MecanumDriveWheelSpeeds();
+
+    // Non-final so the JIT can't constant fold the inputs
+    private double flRpm = 312.5;
+    private double frRpm = 298.1;
+    private double blRpm = 305.7;
+    private double brRpm = 301.2;
+    private double rotations = 12.75;
+    private ChassisSpeeds targetSpeeds = new ChassisSpeeds(1.2, -0.4, 0.8);
+
+    @Setup
+    public void setup() {
+        // Constants creates joysticks, which report usage through the HAL
+        HAL.initialize(500, 0);
+        kinematics = DriveSubsystem.createKinematics();
+        driveKinematics = DriveSubsystem.createDriveKinematics();
+    }
+
+    @Benchmark
+    public ChassisSpeeds wpilibToChassisSpeeds() {
+        double radius = Constants.WHEEL_DIAMETER.in(Units.Meters) / 2;
+        return kinematics.toChassisSpeeds(new MecanumDriveWheelSpeeds(
+                Units.MetersPerSecond.of(Units.RPM.of(flRpm).in(Units.RadiansPerSecond) * radius),
+                Units.MetersPerSecond.of(Units.RPM.of(frRpm).in(Units.RadiansPerSecond) * radius),
+                Units.MetersPerSecond.of(Units.RPM.of(blRpm).in(Units.RadiansPerSecond) * radius),
+                Units.MetersPerSecond.of(Units.RPM.of(brRpm).in(Units.RadiansPerSecond) * radius)));
+    }
+
+    @Benchmark
+    public ChassisSpeeds toChassisSpeeds() {
+        driveKinematics.toChassisSpeeds(flRpm, frRpm, blRpm, brRpm, chassisSpeeds);
+        return chassisSpeeds;
+    }
+
+    /** Same as DriveSubsystem.getChassisSpeeds(), which PathPlanner calls every loop. */
+    @Benchmark
+    public ChassisSpeeds toChassisSpeedsCopy() {
+        driveKinematics.toChassisSpeeds(flRpm, frRpm, blRpm, brRpm, chassisSpeeds);
+        return new ChassisSpeeds(chassisSpeeds.vxMetersPerSecond, chassisSpeeds.vyMetersPerSecond,
+                chassisSpeeds.omegaRadiansPerSecond);
+    }
+
+    @Benchmark
+    public MecanumDriveWheelSpeeds wpilibToWheelSpeeds() {
+        return kinematics.toWheelSpeeds(targetSpeeds);
+    }
+
+    @Benchmark
+    public MecanumDriveWheelSpeeds toWheelSpeeds() {
+        driveKinematics.toWheelSpeeds(targetSpeeds, wheelSpeeds);
+        return wheelSpeeds;
+    }
+
+    @Benchmark
+    public Distance rotationsToDistance() {
+        return Utilities.rotationsToDistance(rotations);
+    }
+
+    @Benchmark
+    public double rotationsToMeters() {
+        return Utilities.rotationsToMeters(rotations);
+    }
+}
@@ -0,0 +1,56 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import frc.libs.DriverInputPipeline;
+
+/**
+ * Benchmarks shaping one cycle of driver input. Run with the gc profiler to
+ * check that it doesn't allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriverInputPipelineBenchmark {
+    private DriverInputPipeline linear;
+    private DriverInputPipeline shaped;
+
+    // Non-final so the JIT can't constant fold the inputs
+    private double stickX = 0.42;
+    private double stickY = -0.31;
+    private double stickZ = 0.27;
+    private double headingRadians = 1.1;
+
+    @Setup
+    public void setup() {
+        linear = new DriverInputPipeline(0.15, DriverInputPipeline.power(1), DriverInputPipeline.power(1),
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 0.02);
+        shaped = new DriverInputPipeline(0.15, DriverInputPipeline.power(2.2), DriverInputPipeline.power(3),
+                3, 5, 0.02);
+    }
+
+    @Benchmark
+    public void robotRelative(Blackhole bh) {
+        linear.calculate(stickX, stickY, stickZ);
+        bh.consume(linear.getX());
+        bh.consume(linear.getY());
+        bh.consume(linear.getZ());
+    }
+
+    @Benchmark
+    public void fieldRelativeShaped(Blackhole bh) {
+        shaped.calculate(stickX, stickY, stickZ, headingRadians);
+        bh.consume(shaped.getX());
+        bh.consume(shaped.getY());
+        bh.consume(shaped.getZ());
+    }
+}
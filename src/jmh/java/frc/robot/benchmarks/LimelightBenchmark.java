@@ -0,0 +1,66 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import frc.robot.util.LimelightHelpers;
+
+/**
+ * Benchmarks decoding of the Limelight's NetworkTables output.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimelightBenchmark {
+    /** A two tag botpose_orb_wpiblue frame: pose, latency, tag stats, then 7 values per tag. */
+    private double[] botpose = {
+            3.21, 4.05, 0, 0, 0, 58.3,
+            24.5, 2, 0.41, 1.87, 0.62,
+            18, -4.2, 1.3, 0.71, 1.64, 1.80, 0.08,
+            19, 11.8, 0.9, 0.53, 2.01, 2.15, 0.12 };
+
+    private long timestamp = 123_456_789L;
+
+    private String json = "{\"pID\":0,\"tl\":18.2,\"cl\":6.3,\"ts\":4821.7,\"ts_rio\":98.4,\"v\":1,"
+            + "\"botpose\":[-5.06,0.03,0,0,0,58.3],"
+            + "\"botpose_wpired\":[11.71,4.06,0,0,0,-121.7],"
+            + "\"botpose_wpiblue\":[3.21,4.05,0,0,0,58.3],"
+            + "\"botpose_tagcount\":2,\"botpose_span\":0.41,\"botpose_avgdist\":1.87,\"botpose_avgarea\":0.62,"
+            + "\"t6c_rs\":[0.25,0,0.3,0,15,0],"
+            + "\"Fiducial\":["
+            + "{\"fID\":18,\"fam\":\"36H11C\",\"t6c_ts\":[0.1,0.2,-1.6,0,2,1],\"t6r_fs\":[3.21,4.05,0,0,0,58.3],"
+            + "\"t6r_ts\":[0.1,0.2,-1.8,0,2,1],\"t6t_cs\":[-0.1,-0.2,1.6,0,-2,-1],\"t6t_rs\":[-0.1,-0.2,1.8,0,-2,-1],"
+            + "\"ta\":0.71,\"tx\":-4.2,\"ty\":1.3,\"txp\":301,\"typ\":231,\"tx_nocross\":-4.2,\"ty_nocross\":1.3,\"ts\":0},"
+            + "{\"fID\":19,\"fam\":\"36H11C\",\"t6c_ts\":[0.3,0.2,-1.9,0,2,1],\"t6r_fs\":[3.22,4.04,0,0,0,58.1],"
+            + "\"t6r_ts\":[0.3,0.2,-2.1,0,2,1],\"t6t_cs\":[-0.3,-0.2,1.9,0,-2,-1],\"t6t_rs\":[-0.3,-0.2,2.1,0,-2,-1],"
+            + "\"ta\":0.53,\"tx\":11.8,\"ty\":0.9,\"txp\":412,\"typ\":236,\"tx_nocross\":11.8,\"ty_nocross\":0.9,\"ts\":0}"
+            + "],\"Retro\":[],\"Classifier\":[],\"Detector\":[],\"Barcode\":[]}";
+
+    @Benchmark
+    public LimelightHelpers.PoseEstimate getBotPoseEstimate() {
+        return LimelightHelpers.decodePoseEstimate(botpose, timestamp, true);
+    }
+
+    @Benchmark
+    public Pose2d toPose2D() {
+        return LimelightHelpers.toPose2D(botpose);
+    }
+
+    @Benchmark
+    public Pose3d toPose3D() {
+        return LimelightHelpers.toPose3D(botpose);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults getLatestResults() {
+        return LimelightHelpers.parseLatestResults(json);
+    }
+}
@@ -0,0 +1,168 @@
+package frc.libs;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Shapes joystick input for a holonomic drive: radial deadband, response
+ * curve, per-axis slew limiting and optional field relative rotation, in that
+ * order.
+ * <p>
+ * The response curves are sampled into lookup tables when the pipeline is
+ * created and linearly interpolated after that, so any curve costs the same
+ * per cycle. Everything is done on primitive doubles held in fields and
+ * nothing is allocated after construction. Read the result with
+ * {@link #getX()}, {@link #getY()} and {@link #getZ()} after calling
+ * {@link #calculate}.
+ */
+public class DriverInputPipeline {
+    /** Number of segments each curve's lookup table is split into. */
+    public static final int TABLE_SEGMENTS = 64;
+
+    private final double deadband;
+    private final double[] translationTable;
+    private final double[] rotationTable;
+    private final double maxTranslationStep;
+    private final double maxRotationStep;
+
+    private double x;
+    private double y;
+    private double z;
+
+    // Slew limited outputs before the field relative rotation
+    private double lastX;
+    private double lastY;
+    private double lastZ;
+
+    /**
+     * @param deadband            Radius of the translation deadband, and the
+     *                            width of the rotation deadband.
+     * @param translationCurve    Maps the translation magnitude past the
+     *                            deadband, from 0 to 1, to the output
+     *                            magnitude. Should map 0 to 0 and 1 to 1.
+     * @param rotationCurve       Same for the rotation axis.
+     * @param translationSlewRate Fastest each translation axis may change, in
+     *                            units per second. Infinite for no limit.
+     * @param rotationSlewRate    Same for the rotation axis.
+     * @param periodSeconds       Time between calls to calculate().
+     */
+    public DriverInputPipeline(double deadband, DoubleUnaryOperator translationCurve,
+            DoubleUnaryOperator rotationCurve, double translationSlewRate, double rotationSlewRate,
+            double periodSeconds) {
+        if (deadband < 0 || deadband >= 1)
+            throw new IllegalArgumentException("Deadband must be in [0, 1), got " + deadband);
+
+        this.deadband = deadband;
+        this.translationTable = sample(translationCurve);
+        this.rotationTable = sample(rotationCurve);
+        this.maxTranslationStep = translationSlewRate * periodSeconds;
+        this.maxRotationStep = rotationSlewRate * periodSeconds;
+    }
+
+    /**
+     * @param exponent Exponent of the curve, 1 for linear.
+     * @return A curve that raises its input to a power.
+     */
+    public static DoubleUnaryOperator power(double exponent) {
+        return input -> Math.pow(input, exponent);
+    }
+
+    /**
+     * Shapes robot relative input.
+     *
+     * @param xInput Forward stick input [-1.0..1.0].
+     * @param yInput Left stick input [-1.0..1.0].
+     * @param zInput Counterclockwise rotation stick input [-1.0..1.0].
+     */
+    public void calculate(double xInput, double yInput, double zInput) {
+        shape(xInput, yInput, zInput);
+        x = lastX;
+        y = lastY;
+        z = lastZ;
+    }
+
+    /**
+     * Shapes field relative input and turns it into robot relative output.
+     *
+     * @param xInput         Stick input away from the driver [-1.0..1.0].
+     * @param yInput         Stick input to the driver's left [-1.0..1.0].
+     * @param zInput         Counterclockwise rotation stick input [-1.0..1.0].
+     * @param headingRadians Robot heading relative to the driver's forward,
+     *                       counterclockwise positive.
+     */
+    public void calculate(double xInput, double yInput, double zInput, double headingRadians) {
+        shape(xInput, yInput, zInput);
+        double cos = Math.cos(headingRadians);
+        double sin = Math.sin(headingRadians);
+        x = lastX * cos + lastY * sin;
+        y = -lastX * sin + lastY * cos;
+        z = lastZ;
+    }
+
+    /**
+     * Clears the slew limiters, so the next output isn't limited by what the
+     * driver was doing before.
+     */
+    public void reset() {
+        lastX = lastY = lastZ = 0;
+        x = y = z = 0;
+    }
+
+    /** @return Forward output. */
+    public double getX() {
+        return x;
+    }
+
+    /** @return Left output. */
+    public double getY() {
+        return y;
+    }
+
+    /** @return Counterclockwise rotation output. */
+    public double getZ() {
+        return z;
+    }
+
+    private void shape(double xInput, double yInput, double zInput) {
+        // Radial deadband and curve. Scaling both axes by the same factor keeps
+        // the direction without going through an angle.
+        double magnitude = Math.sqrt(xInput * xInput + yInput * yInput);
+        double targetX = 0;
+        double targetY = 0;
+        if (magnitude > deadband) {
+            double scale = lookup(translationTable, (magnitude - deadband) / (1 - deadband)) / magnitude;
+            targetX = xInput * scale;
+            targetY = yInput * scale;
+        }
+
+        double targetZ = 0;
+        double zMagnitude = Math.abs(zInput);
+        if (zMagnitude > deadband)
+            targetZ = Math.copySign(lookup(rotationTable, (zMagnitude - deadband) / (1 - deadband)), zInput);
+
+        lastX += clamp(targetX - lastX, maxTranslationStep);
+        lastY += clamp(targetY - lastY, maxTranslationStep);
+        lastZ += clamp(targetZ - lastZ, maxRotationStep);
+    }
+
+    /**
+     * @param input Point to look up, clamped to [0, 1].
+     */
+    private static double lookup(double[] table, double input) {
+        double position = Math.min(input, 1) * TABLE_SEGMENTS;
+        int index = Math.min((int) position, TABLE_SEGMENTS - 1);
+        double fraction = position - index;
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+
+    private static double[] sample(DoubleUnaryOperator curve) {
+        double[] table = new double[TABLE_SEGMENTS + 1];
+        for (int i = 0; i <= TABLE_SEGMENTS; i++) {
+            table[i] = curve.applyAsDouble((double) i / TABLE_SEGMENTS);
+        }
+        return table;
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+}
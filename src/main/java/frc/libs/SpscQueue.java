@@ -0,0 +1,97 @@
+package frc.libs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, lock-free queue for handing data from exactly one producer thread to
+ * exactly one consumer thread.
+ * <p>
+ * Slots are allocated once up front and reused, so nothing is allocated after
+ * construction. The producer fills a slot between {@link #beginWrite()} and
+ * {@link #commitWrite()}, and the consumer reads one between
+ * {@link #beginRead()} and {@link #commitRead()}. A slot must not be touched
+ * after it has been committed.
+ */
+public class SpscQueue<T> {
+    private final Object[] slots;
+    private final int mask;
+
+    // Next slot to read, only written by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to write, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a queue and fills every slot.
+     *
+     * @param capacity Number of slots, must be a power of two.
+     * @param factory  Creates the object held by each slot.
+     */
+    public SpscQueue(int capacity, Supplier<T> factory) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * Producer only. Gets the next free slot to fill.
+     *
+     * @return The slot, or null if the queue is full.
+     */
+    @SuppressWarnings("unchecked")
+    public T beginWrite() {
+        long t = tail.get();
+        if (t - head.get() >= slots.length)
+            return null;
+        return (T) slots[(int) (t & mask)];
+    }
+
+    /**
+     * Producer only. Makes the slot from {@link #beginWrite()} visible to the
+     * consumer.
+     */
+    public void commitWrite() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Consumer only. Gets the oldest filled slot.
+     *
+     * @return The slot, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T beginRead() {
+        long h = head.get();
+        if (h >= tail.get())
+            return null;
+        return (T) slots[(int) (h & mask)];
+    }
+
+    /**
+     * Consumer only. Hands the slot from {@link #beginRead()} back to the
+     * producer.
+     */
+    public void commitRead() {
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * @return Approximate number of filled slots.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return Total number of slots.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+}
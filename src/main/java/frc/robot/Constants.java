@@ -55,6 +55,7 @@ public final class Constants {
 	public static final double BL_kS = 0;
 	public static final double BL_kV = 3.26;
 
+	// Velocity loop gains, in volts per m/s of error like the feedforward
 	public static final double FL_kP = 0.017002;
 	public static final double FL_kI = 0.0;
 	public static final double FL_kD = 0;
@@ -63,12 +64,12 @@ public final class Constants {
 	public static final double FR_kI = 0;
 	public static final double FR_kD = 0;
 
-	public static final double BL_kP = 1.6878;
-	public static final double BR_kI = 0;
+	public static final double BL_kP = 0.016878;
+	public static final double BL_kI = 0;
 	public static final double BL_kD = 0;
 
 	public static final double BR_kP = 0.017002;
-	public static final double BL_KI = 0;
+	public static final double BR_kI = 0;
 	public static final double BR_kD = 0;
 
 	public static final Distance WHEEL_DIAMETER = Units.Inches.of(6);
@@ -88,13 +89,23 @@ public final class Constants {
 
 	public static final int ELEVATOR_HALL_EFFECT_PORT = 8;
 
-	public static final double ELEVATOR_MAN_TOLERANCE = .5;
+	// Motor rotations
+	public static final double ELEVATOR_TOLERANCE = .5;
 
-	public static final double ELEVATOR_STILL_PERCENT = 0.02734375;
+	// Elevator feedforward, volts and volts per motor rotation per second.
+	// kG is the 0.02734375 duty cycle that held the elevator still, kV is a
+	// NEO's 12 V over its free speed. There's no kS or kA until the elevator
+	// is characterized.
+	public static final double ELEVATOR_kG = 0.33;
+	public static final double ELEVATOR_kV = 0.13;
 
-	// TODO: Replace with proper value
-	public static final AngularVelocity ELEVATOR_MAX_VELOCITY = Units.RPM.of(1);
-	public static final AngularAcceleration ELEVATOR_MAX_ACCELERATION = Units.RPM.per(Units.Second).of(1);
+	public static final double ELEVATOR_kP = 0.1;
+	public static final double ELEVATOR_kI = 0;
+	public static final double ELEVATOR_kD = 0;
+
+	// About 80% of a NEO's free speed, full speed in half a second
+	public static final AngularVelocity ELEVATOR_MAX_VELOCITY = Units.RPM.of(4500);
+	public static final AngularAcceleration ELEVATOR_MAX_ACCELERATION = Units.RPM.per(Units.Second).of(9000);
 
 	// public static final Angle
 
@@ -161,6 +172,36 @@ public final class Constants {
 	public static final double DONT_SEE_TAG_WAIT_TIME = 0.5;
 	public static final double POSE_VALIDATION_TIME = 0.3;
 
+	// Reef alignment, see ReefTargets and AlignToReef
+	public static final Distance REEF_SCORING_DISTANCE = Units.Inches.of(18);  // Reef tag to robot center
+	public static final Distance REEF_BRANCH_OFFSET = Units.Inches.of(6.47);  // Face center to each branch
+	public static final double REEF_ALIGN_TRANSLATION_P = 3.0;
+	public static final double REEF_ALIGN_ROTATION_P = 4.0;
+	public static final double REEF_ALIGN_MAX_VELOCITY = 1.5;  // Meters per second
+	public static final double REEF_ALIGN_MAX_ACCELERATION = 2.0;
+	public static final double REEF_ALIGN_MAX_ANGULAR_VELOCITY = Math.PI;  // Radians per second
+	public static final double REEF_ALIGN_MAX_ANGULAR_ACCELERATION = 2 * Math.PI;
+	public static final Distance REEF_ALIGN_POSITION_TOLERANCE = Units.Centimeters.of(2);
+	public static final Angle REEF_ALIGN_ANGLE_TOLERANCE = Units.Degrees.of(1.5);
+	public static final double REEF_ALIGN_VELOCITY_TOLERANCE = 0.05;  // Meters per second
+	public static final double REEF_ALIGN_ANGULAR_VELOCITY_TOLERANCE = 0.05;  // Radians per second
+
+	// Pathfinding, see PathfindingPlanner
+	public static final Distance CORAL_STATION_DISTANCE = Units.Inches.of(18);  // Station tag to robot center
+	public static final double PATHFINDING_MAX_VELOCITY = 2.5;  // Meters per second
+	public static final double PATHFINDING_MAX_ACCELERATION = 3.0;
+	public static final double PATHFINDING_MAX_ANGULAR_VELOCITY = 2 * Math.PI;  // Radians per second
+	public static final double PATHFINDING_MAX_ANGULAR_ACCELERATION = 4 * Math.PI;
+	public static final Distance PATHFINDING_CACHE_CELL_SIZE = Units.Meters.of(0.3);  // navgrid.json nodeSizeMeters
+
+	// Driver input shaping, see DriverInputPipeline. An exponent of 1 is
+	// linear, an infinite slew rate doesn't limit.
+	public static final double DRIVER_DEADBAND = 0.15;
+	public static final double DRIVER_TRANSLATION_EXPONENT = 1;
+	public static final double DRIVER_ROTATION_EXPONENT = 1;
+	public static final double DRIVER_TRANSLATION_SLEW_RATE = Double.POSITIVE_INFINITY;
+	public static final double DRIVER_ROTATION_SLEW_RATE = Double.POSITIVE_INFINITY;
+
 	// Controls
 	public static Joystick primaryStick = new Joystick(0);
 	public static Joystick secondaryStick = new Joystick(1);
@@ -0,0 +1,70 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+
+/**
+ * Runs the robot code against a recorded match log instead of hardware, as
+ * fast as the computer allows.
+ * <p>
+ * Every recorded cycle's driver station state and subsystem inputs are fed
+ * back in, the simulated clock is stepped to the cycle's recorded time, and
+ * one robot loop is run. Everything the code logs (including the inputs) goes
+ * to a new log next to the original with a "_replay" suffix, so the two can be
+ * compared in AdvantageScope.
+ * <p>
+ * Run with ./gradlew replay -Plog=path/to/match.wpilog
+ */
+public final class ReplayMain {
+	private ReplayMain() {
+	}
+
+	public static void main(String... args) throws IOException {
+		if (args.length < 1 || args[0].isEmpty()) {
+			System.err.println("Usage: ./gradlew replay -Plog=path/to/match.wpilog");
+			System.exit(1);
+		}
+
+		File input = new File(args[0]).getAbsoluteFile();
+		String outputName = input.getName().replaceFirst("\\.wpilog$", "") + "_replay.wpilog";
+
+		if (!HAL.initialize(500, 0))
+			throw new IllegalStateException("Failed to initialize the HAL");
+
+		// The clock only moves when a recorded cycle is stepped to
+		SimHooks.pauseTiming();
+
+		InputLog.startReplay(input.getPath());
+		BinaryLogger.start(input.getParent(), outputName);
+
+		Robot robot = new Robot();
+
+		int cycles = 0;
+		long startNanos = System.nanoTime();
+		while (InputLog.nextCycle()) {
+			double step = InputLog.getCycleTimestamp() - Timer.getFPGATimestamp();
+			if (step > 0)
+				SimHooks.stepTiming(step);
+			robot.replayCycle();
+			cycles++;
+		}
+
+		BinaryLogger.flush();
+		DataLogManager.stop();
+
+		System.out.printf("Replayed %d cycles in %.1f s, wrote %s%n", cycles,
+				(System.nanoTime() - startNanos) / 1e9, new File(input.getParent(), outputName));
+		System.exit(0);
+	}
+}
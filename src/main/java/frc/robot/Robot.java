@@ -7,6 +7,13 @@ package frc.robot;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.AutoPreparer;
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.CanSignalPlan;
+import frc.robot.util.DriverStationInputs;
+import frc.robot.util.GcTelemetry;
+import frc.robot.util.InputLog;
+import frc.robot.util.LoopProfiler;
 
 /**
  * The methods in this class are called automatically corresponding to each
@@ -20,6 +27,8 @@ public class Robot extends TimedRobot {
 
 	private final RobotContainer m_robotContainer;
 
+	private final DriverStationInputs m_driverStationInputs;
+
 	/**
 	 * This function is run when the robot is first started up and should be used
 	 * for any
@@ -29,8 +38,52 @@ public class Robot extends TimedRobot {
 		// Instantiate our RobotContainer. This will perform all our button bindings,
 		// and put our
 		// autonomous chooser on the dashboard.
+		BinaryLogger.start();
+		GcTelemetry.start();
+		m_driverStationInputs = new DriverStationInputs();
 		m_robotContainer = new RobotContainer();
-		
+		AutoPreparer.warmUp();
+	}
+
+	/**
+	 * Marks the start of every loop in the input log before anything reads
+	 * inputs, and records (or in replay restores) the auto selection the loop
+	 * acts on. The whole loop, including the mode periodics, the SmartDashboard
+	 * updates and the GC telemetry, is timed as one profiler cycle.
+	 */
+	@Override
+	protected void loopFunc() {
+		LoopProfiler.startCycle();
+		// Records the previous loop, now that its time is known
+		GcTelemetry.update();
+		InputLog.startCycle();
+		m_robotContainer.updateAutoSelection();
+		super.loopFunc();
+		LoopProfiler.endCycle();
+	}
+
+	/**
+	 * Replay mode only. Runs one robot loop with the inputs of the cycle loaded
+	 * by {@link InputLog#nextCycle()}.
+	 */
+	void replayCycle() {
+		m_driverStationInputs.replay();
+		loopFunc();
+	}
+
+	/**
+	 * @return The robot's container, for offline tools.
+	 */
+	RobotContainer getContainer() {
+		return m_robotContainer;
+	}
+
+	/**
+	 * @return True while the autonomous command started by autonomousInit() is
+	 *         running.
+	 */
+	boolean isAutonomousCommandRunning() {
+		return m_autonomousCommand != null && m_autonomousCommand.isScheduled();
 	}
 
 	/**
@@ -52,7 +105,10 @@ public class Robot extends TimedRobot {
 		// and running subsystem periodic() methods. This must be called from the
 		// robot's periodic
 		// block in order for anything in the Command-based framework to work.
+		m_driverStationInputs.update();
 		CommandScheduler.getInstance().run();
+		m_robotContainer.logState();
+		CanSignalPlan.updateCanStatus();
 	}
 
 	/** This function is called once each time the robot enters Disabled mode. */
@@ -62,6 +118,7 @@ public class Robot extends TimedRobot {
 
 	@Override
 	public void disabledPeriodic() {
+		m_robotContainer.prepareAutonomous();
 	}
 
 	/**
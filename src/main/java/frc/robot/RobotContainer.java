@@ -4,9 +4,8 @@
 
 package frc.robot;
 
-import frc.robot.commands.AlignAlgae;
-import frc.robot.commands.AlignCoral;
 import frc.robot.commands.AlignCoralAuto;
+import frc.robot.commands.AlignToReef;
 import frc.robot.commands.ArmCommand;
 import frc.robot.commands.ArmTo;
 import frc.robot.commands.AutonBringCoralUp;
@@ -20,6 +19,7 @@ import frc.robot.commands.EncoderTurn;
 import frc.robot.commands.Intake;
 import frc.robot.commands.Outtake;
 import frc.robot.commands.RollerCommand;
+import frc.robot.commands.SuperstructureTo;
 import frc.robot.commands.Turn;
 import frc.robot.commands.ArmTo.ArmLocation;
 import frc.robot.commands.Autos.RoutineType;
@@ -29,16 +29,26 @@ import frc.robot.subsystems.CameraSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
 import frc.robot.subsystems.ElevatorSubsytem;
 import frc.robot.subsystems.RollerSubsystem;
+import frc.robot.subsystems.Superstructure;
+import frc.robot.util.AutoPreparer;
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.PathfindingPlanner;
+import frc.robot.util.ReefTargets;
+import frc.robot.util.StartupOrchestrator;
 
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
@@ -57,18 +67,40 @@ import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
  */
 public class RobotContainer {
 	// The robot's subsystems and commands are defined here...
-	private final DriveSubsystem m_driveSubsystem = new DriveSubsystem();
-	private final ElevatorSubsytem m_elevatorSubsytem = new ElevatorSubsytem();
-	private final ArmSubsystem m_armSubsystem = new ArmSubsystem();
-	private final RollerSubsystem m_rollerSubsystem = new RollerSubsystem();
-	private final CameraSubsystem m_cameraSubsystem = new CameraSubsystem();
+	// Slow setup (controller configuration, file loading, cameras) runs in the
+	// background, see StartupOrchestrator
+	private final DriveSubsystem m_driveSubsystem = StartupOrchestrator.time("DriveSubsystem", DriveSubsystem::new);
+	private final ElevatorSubsytem m_elevatorSubsytem = StartupOrchestrator.time("ElevatorSubsystem",
+			ElevatorSubsytem::new);
+	private final ArmSubsystem m_armSubsystem = StartupOrchestrator.time("ArmSubsystem", ArmSubsystem::new);
+	private final RollerSubsystem m_rollerSubsystem = StartupOrchestrator.time("RollerSubsystem",
+			RollerSubsystem::new);
+	private final CameraSubsystem m_cameraSubsystem = StartupOrchestrator.time("CameraSubsystem",
+			CameraSubsystem::new);
+	private final Superstructure m_superstructure = new Superstructure(m_elevatorSubsytem, m_armSubsystem);
 
 	private final DriveCommand m_driveCommand = new DriveCommand(m_driveSubsystem);
 	private final ElevatorCommand m_elevatorCommand = new ElevatorCommand(m_elevatorSubsytem);
 	private final ArmCommand m_armCommand = new ArmCommand(m_armSubsystem);
 	private final RollerCommand m_rollerCommand = new RollerCommand(m_rollerSubsystem);
 
-	private final SendableChooser<Command> m_chooser;
+	private final AutoPreparer m_autoPreparer;
+	private final PathfindingPlanner m_pathfindingPlanner;
+
+	// Key the auto chooser is published under on SmartDashboard
+	private static final String AUTO_CHOOSER_KEY = "auton chooser";
+	private final InputLog.Entry m_autoSelectionLog = InputLog.stringEntry("AutoSelection");
+
+	private static final String ROBOT_STATE_SCHEMA = "double poseX;double poseY;double poseRotation;"
+			+ "double vx;double vy;double omega;"
+			+ "double flOutput;double frOutput;double blOutput;double brOutput;"
+			+ "double elevatorOutput;double armOutput;double rollerOutput;"
+			+ "double flPosition;double frPosition;double blPosition;double brPosition;"
+			+ "double elevatorPosition;double armPosition;"
+			+ "double elevatorSetpoint;double armSetpoint";
+
+	private final BinaryLogger.Channel m_stateLog = BinaryLogger.structChannel("RobotState", "RobotState",
+			ROBOT_STATE_SCHEMA);
 	// Replace with CommandPS4Controller or CommandJoystick if needed
 	// private final CommandXboxController m_driverController = new
 	// CommandXboxController(
@@ -78,26 +110,45 @@ public class RobotContainer {
 	 * The container for the robot. Contains subsystems, OI devices, and commands.
 	 */
 	public RobotContainer() {
-		m_driveSubsystem.setDefaultCommand(m_driveCommand);
-		m_elevatorSubsytem.setDefaultCommand(m_elevatorCommand);
-		m_armSubsystem.setDefaultCommand(m_armCommand);
-		m_rollerSubsystem.setDefaultCommand(m_rollerCommand);
+		m_driveSubsystem.setDefaultCommand(LoopProfiler.profile(m_driveCommand));
+		m_elevatorSubsytem.setDefaultCommand(LoopProfiler.profile(m_elevatorCommand));
+		m_armSubsystem.setDefaultCommand(LoopProfiler.profile(m_armCommand));
+		m_rollerSubsystem.setDefaultCommand(LoopProfiler.profile(m_rollerCommand));
 
 		CommandScheduler.getInstance().registerSubsystem(m_cameraSubsystem);
 
-		m_chooser = AutoBuilder.buildAutoChooser();
-		m_chooser.setDefaultOption("limlit", Autos.limlit(m_driveSubsystem, m_armSubsystem, m_elevatorSubsytem,
-			m_rollerSubsystem, m_cameraSubsystem));
-		m_chooser.addOption("Move forward", Autos.moveForward(5, m_driveSubsystem));
-		m_chooser.addOption("Middle position L4 coral no limelight",
-				Autos.middleStartL4Score(m_driveSubsystem, m_armSubsystem, m_elevatorSubsytem, m_rollerSubsystem));
-		m_chooser.addOption("DO NOT USE IN COMP", Autos.coralmaybe(m_driveSubsystem, m_armSubsystem, m_elevatorSubsytem,
-				m_rollerSubsystem, m_cameraSubsystem));
+		// Has to replace PathPlanner's default pathfinder before AutoBuilder is
+		// configured, waits for the field layout. Null if the reef targets
+		// couldn't be computed.
+		m_pathfindingPlanner = StartupOrchestrator.time("PathfindingPlanner",
+				() -> m_cameraSubsystem.getReefTargets()
+						.map(targets -> new PathfindingPlanner(m_cameraSubsystem.getFieldLayout().orElseThrow(),
+								targets, m_driveSubsystem::getPose, m_driveSubsystem))
+						.orElse(null));
 
-		SmartDashboard.putData("auton chooser", m_chooser);
+		m_driveSubsystem.configureAutoBuilder();
 
-		// Configure the trigger bindings
+		// Configure the trigger bindings. The named commands have to be
+		// registered before any PathPlanner auto is built.
+		LoopProfiler.beginTriggerBindings();
 		configureBindings();
+		LoopProfiler.endTriggerBindings();
+
+		// Autos are only built once picked, see prepareAutonomous()
+		m_autoPreparer = new AutoPreparer(m_driveSubsystem::setPose);
+		m_autoPreparer.addOption("None", Commands::none);
+		m_autoPreparer.addPathPlannerAutos();
+		m_autoPreparer.setDefaultOption("limlit", () -> Autos.limlit(m_driveSubsystem, m_armSubsystem,
+				m_elevatorSubsytem, m_superstructure, m_rollerSubsystem, m_cameraSubsystem));
+		m_autoPreparer.addOption("Move forward", () -> Autos.moveForward(5, m_driveSubsystem));
+		m_autoPreparer.addOption("Middle position L4 coral no limelight",
+				() -> Autos.middleStartL4Score(m_driveSubsystem, m_superstructure, m_rollerSubsystem));
+		m_autoPreparer.addOption("DO NOT USE IN COMP", () -> Autos.coralmaybe(m_driveSubsystem, m_armSubsystem,
+				m_elevatorSubsytem, m_rollerSubsystem, m_cameraSubsystem));
+
+		SmartDashboard.putData(AUTO_CHOOSER_KEY, m_autoPreparer.getChooser());
+
+		StartupOrchestrator.finish();
 	}
 
 	/**
@@ -124,64 +175,57 @@ public class RobotContainer {
 		// cancelling on release.
 		// m_driverController.b().whileTrue(m_exampleSubsystem.exampleMethodCommand());
 
-		NamedCommands.registerCommand("Mechanism to Intake", new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.INTAKE, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.INTAKE, m_armSubsystem)));
+		NamedCommands.registerCommand("Mechanism to Intake", LoopProfiler.profile("Mechanism to Intake",
+				new SuperstructureTo(ElevatorLocation.INTAKE, ArmLocation.INTAKE, m_superstructure)));
 
-		NamedCommands.registerCommand("Mechanism to High Coral", new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.HIGH_CORAL, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.HIGH_CORAL, m_armSubsystem)));
+		NamedCommands.registerCommand("Mechanism to High Coral", LoopProfiler.profile("Mechanism to High Coral",
+				new SuperstructureTo(ElevatorLocation.HIGH_CORAL, ArmLocation.HIGH_CORAL, m_superstructure)));
 
-		NamedCommands.registerCommand("Mechanism to Low Coral", new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.LOW_CORAL, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.LOW_CORAL, m_armSubsystem)));
+		NamedCommands.registerCommand("Mechanism to Low Coral", LoopProfiler.profile("Mechanism to Low Coral",
+				new SuperstructureTo(ElevatorLocation.LOW_CORAL, ArmLocation.LOW_CORAL, m_superstructure)));
 
-		NamedCommands.registerCommand("Intake", new Intake(m_rollerSubsystem));
+		NamedCommands.registerCommand("Intake", LoopProfiler.profile("Intake", new Intake(m_rollerSubsystem)));
 
-		NamedCommands.registerCommand("Outtake", new Outtake(m_rollerSubsystem));
+		NamedCommands.registerCommand("Outtake", LoopProfiler.profile("Outtake", new Outtake(m_rollerSubsystem)));
 
-		NamedCommands.registerCommand("Coral Up", new AutonBringCoralUp(m_rollerSubsystem));
+		NamedCommands.registerCommand("Coral Up", LoopProfiler.profile("Coral Up", new AutonBringCoralUp(m_rollerSubsystem)));
 
 		NamedCommands.registerCommand("Elevator Command", m_elevatorCommand);
+
+		NamedCommands.registerCommand("Align left branch", LoopProfiler.profile("Align left branch",
+				new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.LEFT_BRANCH)));
+
+		NamedCommands.registerCommand("Align right branch", LoopProfiler.profile("Align right branch",
+				new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.RIGHT_BRANCH)));
+
+		NamedCommands.registerCommand("Align algae", LoopProfiler.profile("Align algae",
+				new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.ALGAE)));
 		
 		// Arm to L1
-		new JoystickButton(Constants.secondaryStick, 3).onTrue(new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.THROUGH, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.THROUGH, m_armSubsystem)));
+		new JoystickButton(Constants.secondaryStick, 3).onTrue(LoopProfiler.profile("Arm to L1",
+				new SuperstructureTo(ElevatorLocation.THROUGH, ArmLocation.THROUGH, m_superstructure)));
 
 		// Arm to L2
-		new JoystickButton(Constants.secondaryStick, 4).onTrue(new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.LOW_CORAL, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.LOW_CORAL, m_armSubsystem)));
+		new JoystickButton(Constants.secondaryStick, 4).onTrue(LoopProfiler.profile("Arm to L2",
+				new SuperstructureTo(ElevatorLocation.LOW_CORAL, ArmLocation.LOW_CORAL, m_superstructure)));
 
 		// Arm to L3
-		new JoystickButton(Constants.secondaryStick, 5).onTrue(new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.MID_CORAL, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.MID_CORAL, m_armSubsystem)));
+		new JoystickButton(Constants.secondaryStick, 5).onTrue(LoopProfiler.profile("Arm to L3",
+				new SuperstructureTo(ElevatorLocation.MID_CORAL, ArmLocation.MID_CORAL, m_superstructure)));
 
 		// Arm to intake pos
-		new JoystickButton(Constants.secondaryStick, 6).onTrue(new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.INTAKE, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.INTAKE, m_armSubsystem)));
+		new JoystickButton(Constants.secondaryStick, 6).onTrue(LoopProfiler.profile("Arm to intake",
+				new SuperstructureTo(ElevatorLocation.INTAKE, ArmLocation.INTAKE, m_superstructure)));
 
 		// Arm to L4
-		new JoystickButton(Constants.primaryStick, 4).onTrue(new SequentialCommandGroup(
-				new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-				new ElevatorTo(ElevatorLocation.HIGH_CORAL, m_elevatorSubsytem),
-				new ArmTo(ArmLocation.HIGH_CORAL, m_armSubsystem)));
+		new JoystickButton(Constants.primaryStick, 4).onTrue(LoopProfiler.profile("Arm to L4",
+				new SuperstructureTo(ElevatorLocation.HIGH_CORAL, ArmLocation.HIGH_CORAL, m_superstructure)));
 
 		// Intake coral
-		new JoystickButton(Constants.secondaryStick, 2).onTrue(new Intake(m_rollerSubsystem));
+		new JoystickButton(Constants.secondaryStick, 2).onTrue(LoopProfiler.profile(new Intake(m_rollerSubsystem)));
 
 		// Outtake coral
-		new JoystickButton(Constants.secondaryStick, 1).onTrue(new Outtake(m_rollerSubsystem));
+		new JoystickButton(Constants.secondaryStick, 1).onTrue(LoopProfiler.profile(new Outtake(m_rollerSubsystem)));
 		// new JoystickButton(Constants.secondaryStick,
 		// 1).whileTrue(m_rollerSubsystem.startRun(() -> {
 		// }, () -> {
@@ -190,24 +234,43 @@ public class RobotContainer {
 		// }));
 
 		// Retract coral
-		new JoystickButton(Constants.primaryStick, 1).whileTrue(m_rollerSubsystem.startRun(() -> {
+		new JoystickButton(Constants.primaryStick, 1).whileTrue(LoopProfiler.profile("Retract coral", m_rollerSubsystem.startRun(() -> {
 		}, () -> {
 			m_rollerSubsystem.roller.set(.1);
-			m_rollerSubsystem.rollerEncoder.setPosition(0);
-		}));
+			m_rollerSubsystem.resetPosition();
+		})));
 
-		// Align and move toward left coral
+		// Drive to the left branch of the nearest reef face
 		new JoystickButton(Constants.primaryStick, 5)
-				.whileTrue(new AlignCoral(m_driveSubsystem, m_cameraSubsystem, Constants.LEFT_CORAL_PIPELINE));
-		// Align and move toward right coral
+				.whileTrue(LoopProfiler.profile("Align left coral",
+						new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.LEFT_BRANCH)));
+		// Drive to the right branch of the nearest reef face
 		new JoystickButton(Constants.primaryStick, 6)
-				.whileTrue(new AlignCoral(m_driveSubsystem, m_cameraSubsystem, Constants.RIGHT_CORAL_PIPELINE));
+				.whileTrue(LoopProfiler.profile("Align right coral",
+						new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.RIGHT_BRANCH)));
+		// Pathfinding needs the reef targets and AutoBuilder, leave its buttons
+		// unbound without them
+		if (m_pathfindingPlanner != null && AutoBuilder.isPathfindingConfigured()) {
+			// Pathfind to the left branch of the nearest reef face, then line up
+			new JoystickButton(Constants.primaryStick, 7)
+					.whileTrue(LoopProfiler.profile("Pathfind left coral",
+							m_pathfindingPlanner.pathfindToReef(ReefTargets.Side.LEFT_BRANCH).andThen(
+									new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.LEFT_BRANCH))));
+			// Pathfind to the right branch of the nearest reef face, then line up
+			new JoystickButton(Constants.primaryStick, 8)
+					.whileTrue(LoopProfiler.profile("Pathfind right coral",
+							m_pathfindingPlanner.pathfindToReef(ReefTargets.Side.RIGHT_BRANCH).andThen(
+									new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.RIGHT_BRANCH))));
+			// Pathfind to the nearest coral station
+			new JoystickButton(Constants.primaryStick, 10)
+					.whileTrue(LoopProfiler.profile("Pathfind coral station", m_pathfindingPlanner.pathfindToCoralStation()));
+		}
 
 		// Force elevator down
-		new JoystickButton(Constants.primaryStick, 3).whileTrue(new ElevatorDown(m_elevatorSubsytem));
+		new JoystickButton(Constants.primaryStick, 3).whileTrue(LoopProfiler.profile(new ElevatorDown(m_elevatorSubsytem)));
 
 		// Align low algae
-		new JoystickButton(Constants.primaryStick, 11).whileTrue(new SequentialCommandGroup(
+		new JoystickButton(Constants.primaryStick, 11).whileTrue(LoopProfiler.profile("Align low algae", new SequentialCommandGroup(
 				// new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
 				new ArmTo(Units.Degrees.of(120), m_armSubsystem),
 				new ElevatorTo(Units.Inches.of(9.5), m_elevatorSubsytem),
@@ -216,11 +279,11 @@ public class RobotContainer {
 							m_rollerSubsystem.roller.set(.5);
 						}, () -> {
 							m_rollerSubsystem.roller.set(0);
-							m_rollerSubsystem.rollerEncoder.setPosition(0);
+							m_rollerSubsystem.resetPosition();
 						}),
-						new AlignAlgae(m_driveSubsystem))));
+						new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.ALGAE)))));
 		// Align high algae
-		new JoystickButton(Constants.primaryStick, 12).whileTrue(new SequentialCommandGroup(
+		new JoystickButton(Constants.primaryStick, 12).whileTrue(LoopProfiler.profile("Align high algae", new SequentialCommandGroup(
 				// new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
 				new ArmTo(Units.Degrees.of(120), m_armSubsystem),
 				new ElevatorTo(Units.Inches.of(26), m_elevatorSubsytem),
@@ -229,9 +292,9 @@ public class RobotContainer {
 							m_rollerSubsystem.roller.set(.5);
 						}, () -> {
 							m_rollerSubsystem.roller.set(0);
-							m_rollerSubsystem.rollerEncoder.setPosition(0);
+							m_rollerSubsystem.resetPosition();
 						}),
-						new AlignAlgae(m_driveSubsystem))));
+						new AlignToReef(m_driveSubsystem, m_cameraSubsystem, ReefTargets.Side.ALGAE)))));
 		
 		// EC retract coral
 		new JoystickButton(Constants.emergencyController, XboxController.Button.kY.value).whileTrue(
@@ -239,7 +302,7 @@ public class RobotContainer {
 				},
 						() -> {
 							m_rollerSubsystem.roller.set(.1);
-							m_rollerSubsystem.rollerEncoder.setPosition(0);
+							m_rollerSubsystem.resetPosition();
 						}));
 		
 		// EC expel coral
@@ -248,7 +311,7 @@ public class RobotContainer {
 				},
 						() -> {
 							m_rollerSubsystem.roller.set(-.1);
-							m_rollerSubsystem.rollerEncoder.setPosition(0);
+							m_rollerSubsystem.resetPosition();
 						}));
 
 		// Cancel arm and elevator commands
@@ -258,7 +321,7 @@ public class RobotContainer {
 							m_elevatorSubsytem.elevator(0);
 						}),
 						m_armSubsystem.runOnce(() -> {
-							m_armSubsystem.setpoint = m_armSubsystem.armEncoder.getPosition();
+							m_armSubsystem.setpoint = m_armSubsystem.inputs.positionRotations;
 						})));
 		
 		// EC force elevator down
@@ -304,6 +367,86 @@ public class RobotContainer {
 		// An example command will be run in autonomous
 		// Command auton = m_chooser.getSelected();
 		// if (auton == null) auton = Autos.moveForward(5, m_driveSubsystem);
-		return m_chooser.getSelected();
+		return m_autoPreparer.getSelected();
+	}
+
+	/**
+	 * Writes one RobotState record to the binary log. Call once per loop.
+	 */
+	public void logState() {
+		if (BinaryLogger.begin(m_stateLog)) {
+			Pose2d pose = m_driveSubsystem.getPose();
+			BinaryLogger.putDouble(pose.getX());
+			BinaryLogger.putDouble(pose.getY());
+			BinaryLogger.putDouble(pose.getRotation().getRadians());
+
+			ChassisSpeeds speeds = m_driveSubsystem.updateChassisSpeeds();
+			BinaryLogger.putDouble(speeds.vxMetersPerSecond);
+			BinaryLogger.putDouble(speeds.vyMetersPerSecond);
+			BinaryLogger.putDouble(speeds.omegaRadiansPerSecond);
+
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.flAppliedOutput);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.frAppliedOutput);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.blAppliedOutput);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.brAppliedOutput);
+			BinaryLogger.putDouble(m_elevatorSubsytem.inputs.appliedOutput);
+			BinaryLogger.putDouble(m_armSubsystem.inputs.appliedOutput);
+			BinaryLogger.putDouble(m_rollerSubsystem.inputs.appliedOutput);
+
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.flPositionRotations);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.frPositionRotations);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.blPositionRotations);
+			BinaryLogger.putDouble(m_driveSubsystem.inputs.brPositionRotations);
+			BinaryLogger.putDouble(m_elevatorSubsytem.inputs.positionRotations);
+			BinaryLogger.putDouble(m_armSubsystem.inputs.positionRotations);
+
+			BinaryLogger.putDouble(m_elevatorSubsytem.getTargetPosition());
+			BinaryLogger.putDouble(m_armSubsystem.setpoint);
+		}
+		BinaryLogger.end();
+	}
+
+	/**
+	 * Builds the selected auto and loads its paths ahead of time, and puts the
+	 * robot at its starting pose. Call every loop while disabled.
+	 */
+	public void prepareAutonomous() {
+		m_autoPreparer.periodic();
+		SmartDashboard.putBoolean("Auto ready", m_autoPreparer.isReady());
+	}
+
+	/**
+	 * Logs the auto chooser's selection, or in replay selects the logged one, so
+	 * the disabled preparation and autonomousInit() act on the same auto in both.
+	 * Call at the start of every loop.
+	 */
+	public void updateAutoSelection() {
+		String current = m_autoPreparer.getChooser().getSelected();
+		if (InputLog.isReplay()) {
+			String selected = m_autoSelectionLog.replayString();
+			if (selected != null && !selected.isEmpty() && !selected.equals(current))
+				selectAuto(selected);
+		} else {
+			m_autoSelectionLog.record(current == null ? "" : current);
+		}
+	}
+
+	/**
+	 * Selects an auto in the chooser as if it was picked on the dashboard.
+	 * 
+	 * @param name Name of the chooser option.
+	 */
+	public void selectAuto(String name) {
+		SmartDashboard.putString(AUTO_CHOOSER_KEY + "/selected", name);
+		// The chooser only picks up the new selection when SmartDashboard updates
+		SmartDashboard.updateValues();
+	}
+
+	/**
+	 * @return Names of every option in the auto chooser. Empty until
+	 *         SmartDashboard has updated once.
+	 */
+	public String[] getAutoNames() {
+		return SmartDashboard.getStringArray(AUTO_CHOOSER_KEY + "/options", new String[0]);
 	}
 }
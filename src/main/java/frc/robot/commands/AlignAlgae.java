@@ -9,9 +9,10 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
+import frc.robot.subsystems.CameraSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.LimelightFrame;
 import frc.robot.util.LimelightHelpers;
-import frc.robot.util.Utilities;
 
 /** An example command that uses an example subsystem. */
 public class AlignAlgae extends Command {
@@ -19,16 +20,18 @@ public class AlignAlgae extends Command {
 
     private PIDController yController, rotController;
 	private final DriveSubsystem m_subsystem;
+    private final CameraSubsystem m_cameraSubsystem;
     private Timer dontSeeTagTimer, stopTimer;
     private boolean limelightOdo;
     private int pipeline;
     private double tolerance = 1;
 
-    public AlignAlgae(DriveSubsystem subsystem) {
+    public AlignAlgae(DriveSubsystem subsystem, CameraSubsystem cameraSubsystem) {
         // xController = new PIDController(Constants.X_ALGAE_ALIGNMENT_P, 0, 0);  // Vertical movement
         yController = new PIDController(Constants.Y_ALGAE_ALIGNMENT_P, 0, 0);  // Horitontal movement
         rotController = new PIDController(Constants.ROT_ALGAE_ALIGNMENT_P, 0, 0);  // Rotation
         this.m_subsystem = subsystem;
+        this.m_cameraSubsystem = cameraSubsystem;
         this.pipeline = Constants.APRIL_TAG_PIPELINE;
         // Use addRequirements() here to declare subsystem dependencies.
         addRequirements(m_subsystem);
@@ -60,11 +63,11 @@ public class AlignAlgae extends Command {
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        if (LimelightHelpers.getTV(Constants.FRONT_LIMELIGHT) &&
-            Utilities.isTagOnReef(LimelightHelpers.getFiducialID(Constants.FRONT_LIMELIGHT)))
+        LimelightFrame frame = m_cameraSubsystem.frontFrame;
+        if (frame.seesReefTag())
         {
             this.dontSeeTagTimer.reset();
-            double[] postions = LimelightHelpers.getBotPose_TargetSpace(Constants.FRONT_LIMELIGHT);
+            double[] postions = frame.botPoseTargetSpace;
 
             // double xSpeed = xController.calculate(postions[2]);
             double xSpeed = Constants.MAX_SPEED_ALGAE_ALIGNMENT;
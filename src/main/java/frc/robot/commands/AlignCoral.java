@@ -14,8 +14,8 @@ import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.subsystems.CameraSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.LimelightFrame;
 import frc.robot.util.LimelightHelpers;
-import frc.robot.util.Utilities;
 
 /** An example command that uses an example subsystem. */
 public class AlignCoral extends Command {
@@ -104,8 +104,8 @@ public class AlignCoral extends Command {
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        if (LimelightHelpers.getTV(Constants.FRONT_LIMELIGHT) &&
-        Utilities.isTagOnReef(LimelightHelpers.getFiducialID(Constants.FRONT_LIMELIGHT))) {
+        LimelightFrame frame = m_cameraSubsystem.frontFrame;
+        if (frame.seesReefTag()) {
             // formatting diff
 
             // double strafe = (x) / (150);
@@ -124,8 +124,8 @@ public class AlignCoral extends Command {
             //     turn = Math.abs(turn) < .25 ? Math.signum(turn) * .25 : turn;
             // }
 
-            double[] postions = LimelightHelpers.getBotPose_TargetSpace(Constants.FRONT_LIMELIGHT);
-            double x = LimelightHelpers.getTX(Constants.FRONT_LIMELIGHT);
+            double[] postions = frame.botPoseTargetSpace;
+            double x = frame.tx;
             // double xSpeed = xController.calculate(postions[2]);
             double xSpeed = Constants.MAX_SPEED_ALGAE_ALIGNMENT;
             // double ySpeed = yController.calculate(postions[0]);
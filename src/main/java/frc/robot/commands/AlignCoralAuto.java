@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.subsystems.CameraSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.LimelightFrame;
 import frc.robot.util.LimelightHelpers;
 
 /** An example command that uses an example subsystem. */
@@ -62,17 +63,17 @@ public class AlignCoralAuto extends Command {
     public void initialize() {
         LimelightHelpers.setPipelineIndex(Constants.FRONT_LIMELIGHT, pipeline);
         time = new Timer();
-        System.out.println("Align Start");
         time.restart();
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        double x = LimelightHelpers.getTX(Constants.FRONT_LIMELIGHT);
+        LimelightFrame frame = m_cameraSubsystem.frontFrame;
+        double x = frame.tx;
         // if (x < -tolerance || x > tolerance) {
             // formatting diff
-            double turn = LimelightHelpers.getBotPose_TargetSpace(Constants.FRONT_LIMELIGHT)[4];
+            double turn = frame.botPoseTargetSpace[4];
             double rotValue = rotController.calculate(turn);
 
             double strafe = (x) / (35.0);
@@ -99,13 +100,12 @@ public class AlignCoralAuto extends Command {
     public void end(boolean interrupted) {
         LimelightHelpers.setPipelineIndex(Constants.FRONT_LIMELIGHT, 0);
         m_driveSubsystem.mechDrive(0, 0, 0);
-        System.out.println("finshed algae align auto");
     }
 
     // Returns true when the command should end.
     @Override
     public boolean isFinished() {
-        double x = LimelightHelpers.getTX(Constants.FRONT_LIMELIGHT);
+        double x = m_cameraSubsystem.frontFrame.tx;
         return (!(x < -tolerance || x > tolerance) && time.hasElapsed(2)) || time.hasElapsed(3.5);
     }
 }
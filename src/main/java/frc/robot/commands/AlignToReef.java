@@ -0,0 +1,137 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.commands;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants;
+import frc.robot.subsystems.CameraSubsystem;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.ReefTargets;
+
+/** Drives to a scoring pose on the nearest reef face. */
+public class AlignToReef extends Command {
+    private final DriveSubsystem m_driveSubsystem;
+    private final CameraSubsystem m_cameraSubsystem;
+    private final ReefTargets.Side side;
+
+    private final ProfiledPIDController xController, yController, rotController;
+    private final double positionTolerance = Constants.REEF_ALIGN_POSITION_TOLERANCE.in(Units.Meters);
+    private final double angleTolerance = Constants.REEF_ALIGN_ANGLE_TOLERANCE.in(Units.Radians);
+
+    // Robot relative output, reused every cycle
+    private final ChassisSpeeds speeds = new ChassisSpeeds();
+    // Null if there are no reef targets, which ends the command right away
+    private Pose2d goal;
+
+    /**
+     * Creates a new AlignToReef command.
+     * <p>
+     * Picks the reef face nearest the robot's fused pose when scheduled and
+     * drives to its scoring pose with motion profiled control of x, y and
+     * heading. Finishes once the robot is within tolerance of the pose and has
+     * stopped, so it also works in autos.
+     *
+     * @param driveSubsystem  Subsystem that handles drive operations
+     * @param cameraSubsystem Subsystem that holds the reef scoring poses
+     * @param side            What to line up with on the reef face
+     */
+    public AlignToReef(DriveSubsystem driveSubsystem, CameraSubsystem cameraSubsystem, ReefTargets.Side side) {
+        this.m_driveSubsystem = driveSubsystem;
+        this.m_cameraSubsystem = cameraSubsystem;
+        this.side = side;
+
+        TrapezoidProfile.Constraints translationConstraints = new TrapezoidProfile.Constraints(
+                Constants.REEF_ALIGN_MAX_VELOCITY, Constants.REEF_ALIGN_MAX_ACCELERATION);
+        xController = new ProfiledPIDController(Constants.REEF_ALIGN_TRANSLATION_P, 0, 0, translationConstraints);
+        yController = new ProfiledPIDController(Constants.REEF_ALIGN_TRANSLATION_P, 0, 0, translationConstraints);
+        rotController = new ProfiledPIDController(Constants.REEF_ALIGN_ROTATION_P, 0, 0,
+                new TrapezoidProfile.Constraints(Constants.REEF_ALIGN_MAX_ANGULAR_VELOCITY,
+                        Constants.REEF_ALIGN_MAX_ANGULAR_ACCELERATION));
+        rotController.enableContinuousInput(-Math.PI, Math.PI);
+        // Use addRequirements() here to declare subsystem dependencies.
+        addRequirements(m_driveSubsystem);
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        Pose2d pose = m_driveSubsystem.getPose();
+        Optional<ReefTargets> targets = m_cameraSubsystem.getReefTargets();
+        if (targets.isEmpty()) {
+            DriverStation.reportWarning("No reef targets to align to", false);
+            goal = null;
+            return;
+        }
+        goal = targets.get().nearest(pose, side);
+
+        // Start the profiles from where the robot is and how it's moving, in
+        // field coordinates
+        ChassisSpeeds measured = m_driveSubsystem.updateChassisSpeeds();
+        double heading = pose.getRotation().getRadians();
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        xController.reset(pose.getX(), measured.vxMetersPerSecond * cos - measured.vyMetersPerSecond * sin);
+        yController.reset(pose.getY(), measured.vxMetersPerSecond * sin + measured.vyMetersPerSecond * cos);
+        rotController.reset(heading, measured.omegaRadiansPerSecond);
+
+        xController.setGoal(goal.getX());
+        yController.setGoal(goal.getY());
+        rotController.setGoal(goal.getRotation().getRadians());
+    }
+
+    // Called every time the scheduler runs while the command is scheduled.
+    @Override
+    public void execute() {
+        if (goal == null)
+            return;
+        Pose2d pose = m_driveSubsystem.getPose();
+        double heading = pose.getRotation().getRadians();
+
+        // Profile velocity as feedforward, PID on the profile's position
+        double xSpeed = xController.calculate(pose.getX()) + xController.getSetpoint().velocity;
+        double ySpeed = yController.calculate(pose.getY()) + yController.getSetpoint().velocity;
+        double rotSpeed = rotController.calculate(heading) + rotController.getSetpoint().velocity;
+
+        // Field to robot relative
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        speeds.vxMetersPerSecond = xSpeed * cos + ySpeed * sin;
+        speeds.vyMetersPerSecond = -xSpeed * sin + ySpeed * cos;
+        speeds.omegaRadiansPerSecond = rotSpeed;
+        m_driveSubsystem.driveRobotSpeed(speeds);
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        m_driveSubsystem.mechDrive(0, 0, 0);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        if (goal == null)
+            return true;
+        Pose2d pose = m_driveSubsystem.getPose();
+        double dx = goal.getX() - pose.getX();
+        double dy = goal.getY() - pose.getY();
+        double headingError = MathUtil.angleModulus(goal.getRotation().getRadians() - pose.getRotation().getRadians());
+        if (dx * dx + dy * dy > positionTolerance * positionTolerance || Math.abs(headingError) > angleTolerance)
+            return false;
+
+        ChassisSpeeds measured = m_driveSubsystem.updateChassisSpeeds();
+        return Math.hypot(measured.vxMetersPerSecond, measured.vyMetersPerSecond) < Constants.REEF_ALIGN_VELOCITY_TOLERANCE
+                && Math.abs(measured.omegaRadiansPerSecond) < Constants.REEF_ALIGN_ANGULAR_VELOCITY_TOLERANCE;
+    }
+}
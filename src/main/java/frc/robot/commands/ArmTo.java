@@ -53,13 +53,16 @@ public class ArmTo extends Command {
         private ArmLocation(Angle loc) {
             this.loc = loc;
         }
+
+        public Angle getAngle() {
+            return loc;
+        }
     }
 
 	// Called when the command is initially scheduled.
 	@Override
 	public void initialize() {
 		m_subsystem.setTargetPosition(target);
-		System.out.println("aRMtO START");
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
@@ -71,13 +74,12 @@ public class ArmTo extends Command {
 	// Called once the command ends or is interrupted.
 	@Override
 	public void end(boolean interrupted) {
-		System.out.println("ArmTo Done");
 	}
 
 	// Returns true when the command should end.
 	@Override
 	public boolean isFinished() {
 		
-		return Math.abs(m_subsystem.armEncoder.getPosition() - target) < .5;
+		return Math.abs(m_subsystem.inputs.positionRotations - target) < .5;
 	}
 }
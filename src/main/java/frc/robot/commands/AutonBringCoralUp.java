@@ -30,7 +30,6 @@ public class AutonBringCoralUp extends Command {
 	public void initialize() {
 		// m_subsystem.drive.setSafetyEnabled(false);
 		// this.timer.restart();
-		System.out.println("RollerUp START");
 		// m_subsystem.rollerEncoder.setPosition(1);
 		// m_subsystem.setTargetPosition(Units.Rotations.of(0));
 		time.restart();
@@ -45,7 +44,6 @@ public class AutonBringCoralUp extends Command {
 	// Called once the command ends or is interrupted.
 	@Override
 	public void end(boolean interrupted) {
-		System.out.println("RollerUp END");
 		m_subsystem.roller.set(0);
 
 	}
@@ -12,7 +12,9 @@ import frc.robot.subsystems.CameraSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
 import frc.robot.subsystems.ElevatorSubsytem;
 import frc.robot.subsystems.RollerSubsystem;
+import frc.robot.subsystems.Superstructure;
 import frc.robot.util.LimelightHelpers;
+import frc.robot.util.LoopProfiler;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.Encoder;
@@ -156,16 +158,13 @@ public final class Autos {
 
 	}
 
-	public static Command middleStartL4Score(DriveSubsystem m_driveSubsystem, ArmSubsystem m_armSubsystem,
-			ElevatorSubsytem m_elevatorSubsytem, RollerSubsystem m_rollerSubsystem) {
-		return new SequentialCommandGroup(
+	public static Command middleStartL4Score(DriveSubsystem m_driveSubsystem, Superstructure m_superstructure,
+			RollerSubsystem m_rollerSubsystem) {
+		return profiledSequence(
 				new Wait(5),
 				new ParallelCommandGroup(
 						new EncoderDrive(m_driveSubsystem, Units.Feet.of(4.5)),
-						new SequentialCommandGroup(
-								new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-								new ElevatorTo(ElevatorLocation.HIGH_CORAL, m_elevatorSubsytem),
-								new ArmTo(ArmLocation.HIGH_CORAL, m_armSubsystem))),
+						new SuperstructureTo(ElevatorLocation.HIGH_CORAL, ArmLocation.HIGH_CORAL, m_superstructure)),
 
 				new AutonBringCoralUp(m_rollerSubsystem),
 				new Wait(1),
@@ -177,7 +176,7 @@ public final class Autos {
 
 	public static Command coralmaybe(DriveSubsystem m_driveSubsystem, ArmSubsystem m_armSubsystem,
 			ElevatorSubsytem m_elevatorSubsytem, RollerSubsystem m_rollerSubsystem, CameraSubsystem m_cameraSubsystem) {
-		return new SequentialCommandGroup(
+		return profiledSequence(
 				new ParallelCommandGroup(
 						new EncoderDrive(m_driveSubsystem, Units.Feet.of(8))
 				// new SequentialCommandGroup(
@@ -200,22 +199,20 @@ public final class Autos {
 	}
 
 	public static Command moveForward(double delay, DriveSubsystem m_driveSubsystem) {
-		return new SequentialCommandGroup(
+		return profiledSequence(
 				new Wait(delay),
 				new EncoderDrive(m_driveSubsystem, Units.Feet.of(4.5)));
 	}
 
 	public static Command limlit(DriveSubsystem m_driveSubsystem, ArmSubsystem m_armSubsystem,
-			ElevatorSubsytem m_elevatorSubsytem, RollerSubsystem m_rollerSubsystem, CameraSubsystem m_cameraSubsystem) {
-		return new SequentialCommandGroup(
+			ElevatorSubsytem m_elevatorSubsytem, Superstructure m_superstructure, RollerSubsystem m_rollerSubsystem,
+			CameraSubsystem m_cameraSubsystem) {
+		return profiledSequence(
 				new Wait(1),
 
 				new ParallelCommandGroup(
 						new EncoderDrive(m_driveSubsystem, Units.Feet.of(5.25)),
-						new SequentialCommandGroup(
-								new ArmTo(ArmLocation.DURING_ELEVATOR_MOVEMENT, m_armSubsystem),
-								new ElevatorTo(ElevatorLocation.HIGH_CORAL, m_elevatorSubsytem),
-								new ArmTo(ArmLocation.HIGH_CORAL, m_armSubsystem))),
+						new SuperstructureTo(ElevatorLocation.HIGH_CORAL, ArmLocation.HIGH_CORAL, m_superstructure)),
 
 				// (new Turn(m_driveSubsystem, m_cameraSubsystem.fieldLayout.getTagPose((int)LimelightHelpers.getFiducialID(Constants.FRONT_LIMELIGHT)).orElse())),
 				new ParallelRaceGroup(
@@ -239,6 +236,22 @@ public final class Autos {
 		);
 	}
 
+	/**
+	 * Sequence whose steps are each wrapped with
+	 * {@link LoopProfiler#profile(String, Command)} under their position and name
+	 * ("2. WaitCommand"), so how long every step of an auto takes shows up in the
+	 * profiler.
+	 * 
+	 * @param steps Commands to run in order.
+	 * @return The sequence.
+	 */
+	private static Command profiledSequence(Command... steps) {
+		for (int i = 0; i < steps.length; i++) {
+			steps[i] = LoopProfiler.profile((i + 1) + ". " + steps[i].getName(), steps[i]);
+		}
+		return new SequentialCommandGroup(steps);
+	}
+
 	private Autos() {
 		throw new UnsupportedOperationException("This is a utility class!");
 	}
@@ -27,6 +27,7 @@ public class DriveCommand extends Command {
 	// Called when the command is initially scheduled.
 	@Override
 	public void initialize() {
+		m_subsystem.driverInput.reset();
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
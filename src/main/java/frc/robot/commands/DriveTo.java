@@ -37,14 +37,13 @@ public class DriveTo extends Command {
 	// Called when the command is initially scheduled.
 	@Override
 	public void initialize() {
-        this.m_subsystem.gyro.resetDisplacement();
-		System.out.println("DriveTo Start");
+        this.m_subsystem.resetDisplacement();
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
 	@Override
 	public void execute() {
-		float currX = m_subsystem.gyro.getDisplacementX();
+		double currX = m_subsystem.inputs.displacementXMeters;
 		double xSpeed = 0;
         if (currX < x - tolerance || currX > x + tolerance) {
             // formatting xSpeed
@@ -55,7 +54,7 @@ public class DriveTo extends Command {
             xSpeed = Math.abs(xSpeed) < .3 ? Math.signum(xSpeed) * .3 : xSpeed;
         }
 
-		float currY = m_subsystem.gyro.getDisplacementY();
+		double currY = m_subsystem.inputs.displacementYMeters;
 		double ySpeed = 0;
         if (currY < y - tolerance || currY > y + tolerance) {
             // formatting xSpeed
@@ -74,14 +73,13 @@ public class DriveTo extends Command {
 	// Called once the command ends or is interrupted.
 	@Override
 	public void end(boolean interrupted) {
-		System.out.println("DriveTo End");
 	}
 
 	// Returns true when the command should end.
 	@Override
 	public boolean isFinished() {
-		float currX = m_subsystem.gyro.getDisplacementX();
-		float currY = m_subsystem.gyro.getDisplacementY();
+		double currX = m_subsystem.inputs.displacementXMeters;
+		double currY = m_subsystem.inputs.displacementYMeters;
 		return !((currY < y - tolerance || currY > y + tolerance) || (currX < x - tolerance || currX > x + tolerance));
 	}
 }
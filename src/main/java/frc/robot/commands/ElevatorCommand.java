@@ -4,7 +4,6 @@
 
 package frc.robot.commands;
 
-import frc.robot.Constants;
 import frc.robot.subsystems.ElevatorSubsytem;
 import edu.wpi.first.wpilibj2.command.Command;
 
@@ -35,7 +34,7 @@ public class ElevatorCommand extends Command {
     public void execute() {
         // System.out.println(Constants.primaryStick.getTop());
         // if (Constants.primaryStick.getRawAxis(5) == -1)
-            m_subsystem.elevator(Constants.ELEVATOR_STILL_PERCENT);
+            m_subsystem.hold();
     }
 
     // Called once the command ends or is interrupted.
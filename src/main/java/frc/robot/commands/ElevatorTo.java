@@ -47,14 +47,16 @@ public class ElevatorTo extends Command {
         private ElevatorLocation(Distance loc) {
             this.loc = loc;
         }
+
+        public Distance getHeight() {
+            return loc;
+        }
     }
 
 	// Called when the command is initially scheduled.
 	@Override
 	public void initialize() {
-		// m_subsystem.setTargetPositionPID(target);
-		m_subsystem.setTargetPositionMan(target);
-		System.out.println("ElevatorTo Start");
+		m_subsystem.setTargetPosition(target);
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
@@ -66,9 +68,7 @@ public class ElevatorTo extends Command {
 	// Called once the command ends or is interrupted.
 	@Override
 	public void end(boolean interrupted) {
-		
-		m_subsystem.elevator(0);
-		System.out.println("ElevatorTo done");
+		// The default command keeps holding the target
 	}
 
 	// Returns true when the command should end.
@@ -47,39 +47,35 @@ public class EncoderDrive extends Command {
     // Called when the command is initially scheduled.
     @Override
     public void initialize() {
-        zeroFR = m_subsystem.frEncoder.getPosition();
-        zeroBR = m_subsystem.brEncoder.getPosition();
-        zeroFL = m_subsystem.flEncoder.getPosition();
-        zeroBL = m_subsystem.blEncoder.getPosition();
+        zeroFR = m_subsystem.inputs.frPositionRotations;
+        zeroBR = m_subsystem.inputs.brPositionRotations;
+        zeroFL = m_subsystem.inputs.flPositionRotations;
+        zeroBL = m_subsystem.inputs.blPositionRotations;
 
-        startYaw = m_subsystem.gyro.getYaw();
+        startYaw = m_subsystem.inputs.yawDegrees;
 
-        System.out.println("Drive Start");
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        yaw = m_subsystem.gyro.getYaw();
+        yaw = m_subsystem.inputs.yawDegrees;
         if (yaw + tolerance < startYaw)
             turn += 0.0005;
         if (yaw - tolerance > startYaw)
             turn -= 0.0005;
-        System.out.println();
-        System.out.println("counts target: " + counts + ", current: " + (m_subsystem.frEncoder.getPosition() - zeroFR));
         m_subsystem.mechDrive(Math.signum(counts) * speed, 0, turn);
     }
 
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {
-        System.out.println("Drive END");
         m_subsystem.mechDrive(0,0,0);
     }
 
     // Returns true when the command should end.
     @Override
     public boolean isFinished() {
-        return Math.abs(m_subsystem.flEncoder.getPosition() - zeroFL) > Math.abs(counts) || Math.abs(m_subsystem.frEncoder.getPosition() - zeroFR) > Math.abs(counts) || Math.abs(m_subsystem.blEncoder.getPosition() - zeroBL) > Math.abs(counts) || Math.abs(m_subsystem.brEncoder.getPosition() - zeroBR) > Math.abs(counts);
+        return Math.abs(m_subsystem.inputs.flPositionRotations - zeroFL) > Math.abs(counts) || Math.abs(m_subsystem.inputs.frPositionRotations - zeroFR) > Math.abs(counts) || Math.abs(m_subsystem.inputs.blPositionRotations - zeroBL) > Math.abs(counts) || Math.abs(m_subsystem.inputs.brPositionRotations - zeroBR) > Math.abs(counts);
     }
 }
\ No newline at end of file
@@ -49,14 +49,13 @@ public class EncoderTurn extends Command {
     // Called when the command is initially scheduled.
     @Override
     public void initialize() {
-        zeroFR = m_subsystem.frEncoder.getPosition();
-        zeroBR = m_subsystem.brEncoder.getPosition();
-        zeroFL = m_subsystem.flEncoder.getPosition();
-        zeroBL = m_subsystem.blEncoder.getPosition();
+        zeroFR = m_subsystem.inputs.frPositionRotations;
+        zeroBR = m_subsystem.inputs.brPositionRotations;
+        zeroFL = m_subsystem.inputs.flPositionRotations;
+        zeroBL = m_subsystem.inputs.blPositionRotations;
 
-        startYaw = m_subsystem.gyro.getYaw();
+        startYaw = m_subsystem.inputs.yawDegrees;
 
-        System.out.println("Drive Start");
     }
 
     // Called every time the scheduler runs while the command is scheduled.
@@ -69,12 +68,11 @@ public class EncoderTurn extends Command {
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {
-        System.out.println("Drive END");
     }
 
     // Returns true when the command should end.
     @Override
     public boolean isFinished() {
-        return Math.abs(m_subsystem.flEncoder.getPosition() - zeroFL) > Math.abs(counts);// && Math.abs(m_subsystem.frEncoder.get() - zeroFR) > Math.abs(counts) && Math.abs(m_subsystem.blEncoder.get() - zeroBL) > Math.abs(counts) && Math.abs(m_subsystem.brEncoder.get() - zeroBR) > Math.abs(counts);
+        return Math.abs(m_subsystem.inputs.flPositionRotations - zeroFL) > Math.abs(counts);// && Math.abs(m_subsystem.frEncoder.get() - zeroFR) > Math.abs(counts) && Math.abs(m_subsystem.blEncoder.get() - zeroBL) > Math.abs(counts) && Math.abs(m_subsystem.brEncoder.get() - zeroBR) > Math.abs(counts);
     }
 }
\ No newline at end of file
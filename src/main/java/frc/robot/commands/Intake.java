@@ -28,7 +28,6 @@ public class Intake extends Command {
         stage = 0;
         rotations = -.5;
 
-        System.out.println("CONSTRUCT");
         // Use addRequirements() here to declare subsystem dependencies.
         addRequirements(subsystem);
     }
@@ -38,8 +37,7 @@ public class Intake extends Command {
     public void initialize() {
         stage = 0;
         
-        System.out.println("INIT");
-        m_subsystem.rollerEncoder.setPosition(0);
+        m_subsystem.resetPosition();
     }
 
     // Called every time the scheduler runs while the command is scheduled.
@@ -48,10 +46,10 @@ public class Intake extends Command {
         // m_subsystem.roll();
         if (stage == 0) {
             m_subsystem.roller.set(-.19);
-            if (m_subsystem.laser.getRange() < 55) {
+            if (m_subsystem.inputs.laserRangeMm < 55) {
                 stage = 1;
                 m_subsystem.roller.set(0);
-                m_subsystem.rollerEncoder.setPosition(0);
+                m_subsystem.resetPosition();
                 m_subsystem.setTargetPosition(Units.Rotations.of(rotations));
             }
         }
@@ -60,7 +58,7 @@ public class Intake extends Command {
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {
-        m_subsystem.rollerEncoder.setPosition(0);
+        m_subsystem.resetPosition();
         m_subsystem.setTargetPosition(Units.Rotations.of(0));
         stage = 0;
     }
@@ -69,6 +67,6 @@ public class Intake extends Command {
     @Override
     public boolean isFinished() {
 
-        return m_subsystem.rollerEncoder.getPosition() > rotations - tolerance && m_subsystem.rollerEncoder.getPosition() < rotations + tolerance && stage == 1;
+        return m_subsystem.inputs.positionRotations > rotations - tolerance && m_subsystem.inputs.positionRotations < rotations + tolerance && stage == 1;
     }
 }
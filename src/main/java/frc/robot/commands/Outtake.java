@@ -37,8 +37,7 @@ public class Outtake extends Command {
     public void initialize() {
         stage = 0;
         
-        System.out.println("OUTTAKE START");
-        m_subsystem.rollerEncoder.setPosition(0);
+        m_subsystem.resetPosition();
     }
 
     // Called every time the scheduler runs while the command is scheduled.
@@ -47,10 +46,10 @@ public class Outtake extends Command {
         // m_subsystem.roll();
         if (stage == 0) {
             m_subsystem.roller.set(-.19);
-            if (m_subsystem.laser.getRange() > 65) {
+            if (m_subsystem.inputs.laserRangeMm > 65) {
                 stage = 1;
                 m_subsystem.roller.set(0);
-                m_subsystem.rollerEncoder.setPosition(0);
+                m_subsystem.resetPosition();
                 m_subsystem.setTargetPosition(Units.Rotations.of(rotations));
             }
         }
@@ -59,16 +58,15 @@ public class Outtake extends Command {
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {
-        m_subsystem.rollerEncoder.setPosition(0);
+        m_subsystem.resetPosition();
         m_subsystem.setTargetPosition(Units.Rotations.of(0));
         stage = 0;
-        System.out.println("OUTTAKE END");
     }
 
     // Returns true when the command should end.
     @Override
     public boolean isFinished() {
         
-        return m_subsystem.rollerEncoder.getPosition() > rotations - tolerance && m_subsystem.rollerEncoder.getPosition() < rotations + tolerance && stage == 1;
+        return m_subsystem.inputs.positionRotations > rotations - tolerance && m_subsystem.inputs.positionRotations < rotations + tolerance && stage == 1;
     }
 }
@@ -35,8 +35,7 @@ public class OuttakeTimer extends Command {
     @Override
     public void initialize() {
         
-        System.out.println("OUTTAKE START");
-        m_subsystem.rollerEncoder.setPosition(0);
+        m_subsystem.resetPosition();
     }
 
     // Called every time the scheduler runs while the command is scheduled.
@@ -63,7 +62,6 @@ public class OuttakeTimer extends Command {
         // stage = 0;
         m_subsystem.roller.set(0);
         
-        System.out.println("OUTTAKE END");
     }
 
     // Returns true when the command should end.
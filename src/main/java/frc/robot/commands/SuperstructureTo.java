@@ -0,0 +1,60 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.commands;
+
+import frc.robot.commands.ArmTo.ArmLocation;
+import frc.robot.commands.ElevatorTo.ElevatorLocation;
+import frc.robot.subsystems.Superstructure;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/** Moves the elevator and arm to a scoring or intake position together. */
+public class SuperstructureTo extends Command {
+	@SuppressWarnings({ "PMD.UnusedPrivateField", "PMD.SingularField" })
+	private final Superstructure m_subsystem;
+	private final ElevatorLocation height;
+	private final ArmLocation angle;
+
+	/**
+	 * Creates a new SuperstructureTo command.
+	 * <p>Moves the elevator and arm at the same time wherever it is safe.
+	 * Scheduling another one while this runs retargets without stopping.
+	 * 
+	 * @param height Position to move the elevator to.
+	 * @param angle Position to turn the arm to.
+	 * @param subsystem The superstructure used by this command.
+	 */
+	public SuperstructureTo(ElevatorLocation height, ArmLocation angle, Superstructure subsystem) {
+		this.m_subsystem = subsystem;
+		this.height = height;
+		this.angle = angle;
+
+		// Use addRequirements() here to declare subsystem dependencies.
+		addRequirements(m_subsystem, m_subsystem.elevator, m_subsystem.arm);
+	}
+
+	// Called when the command is initially scheduled.
+	@Override
+	public void initialize() {
+		m_subsystem.setGoal(height.getHeight(), angle.getAngle());
+	}
+
+	// Called every time the scheduler runs while the command is scheduled.
+	@Override
+	public void execute() {
+		m_subsystem.update();
+	}
+
+	// Called once the command ends or is interrupted.
+	@Override
+	public void end(boolean interrupted) {
+		// The default commands keep holding the last targets
+	}
+
+	// Returns true when the command should end.
+	@Override
+	public boolean isFinished() {
+		return m_subsystem.atGoal();
+	}
+}
@@ -45,14 +45,13 @@ public class TimeDrive extends Command {
     @Override
     public void initialize() {
         time.restart();
-        startYaw = m_subsystem.gyro.getYaw();
-        System.out.println("Drive Start");
+        startYaw = m_subsystem.inputs.yawDegrees;
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        yaw = m_subsystem.gyro.getYaw();
+        yaw = m_subsystem.inputs.yawDegrees;
         if (yaw + tolerance < startYaw)
             turn += 0.0005;
         if (yaw - tolerance > startYaw)
@@ -64,7 +63,6 @@ public class TimeDrive extends Command {
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {
-        System.out.println("Drive END");
         m_subsystem.mechDrive(0,0,0);
     }
 
@@ -35,14 +35,13 @@ public class Turn extends Command {
     // Called when the command is initially scheduled.
     @Override
     public void initialize() {
-        startYaw = m_subsystem.gyro.getYaw();
+        startYaw = m_subsystem.inputs.yawDegrees;
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        yaw = m_subsystem.gyro.getYaw() - startYaw;
-        System.out.println(yaw + ", " + heading);
+        yaw = m_subsystem.inputs.yawDegrees - startYaw;
         if (yaw < heading - tolerance || yaw > heading + tolerance) {
             // formatting diff
 
@@ -35,7 +35,6 @@ public class Wait extends Command {
 	public void initialize() {
 		m_subsystem.drive.setSafetyEnabled(false);
 		this.timer.restart();
-		System.out.println("Wait START");
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
@@ -47,7 +46,6 @@ public class Wait extends Command {
 	@Override
 	public void end(boolean interrupted) {
 		m_subsystem.drive.setSafetyEnabled(true);
-		System.out.println("Wait END");
 	}
 
 	// Returns true when the command should end.
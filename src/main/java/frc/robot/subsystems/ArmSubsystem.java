@@ -6,11 +6,10 @@ package frc.robot.subsystems;
 
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkClosedLoopController;
 
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.sim.SparkMaxSim;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.config.ClosedLoopConfig;
 import com.revrobotics.spark.config.MAXMotionConfig;
@@ -18,12 +17,24 @@ import com.revrobotics.spark.config.SoftLimitConfig;
 import com.revrobotics.spark.config.SparkMaxConfig;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.subsystems.io.ArmIO;
+import frc.robot.subsystems.io.ArmIOSparkMax;
+import frc.robot.util.CanSignalPlan;
+import frc.robot.util.InputLog;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.SparkConfigurator;
+import frc.robot.util.StartupOrchestrator;
 
 public class ArmSubsystem extends SubsystemBase {
     
@@ -41,32 +52,69 @@ public class ArmSubsystem extends SubsystemBase {
 
     public DigitalInput limitSwitch;
 
+    // Sensor values for this cycle, read once at the start of periodic()
+    public final ArmIO.Inputs inputs = new ArmIO.Inputs();
+    private final ArmIO io;
+    private final InputLog.Entry inputLog = InputLog.entry("Arm", "ArmInputs", ArmIO.Inputs.SCHEMA);
+
+    private final LoopProfiler.Section inputsProfile = LoopProfiler.section("ArmSubsystem/inputs");
+
+    // Simulation only, estimated
+    private static final double SIM_ARM_LENGTH_METERS = 0.4;
+    private static final double SIM_ARM_MASS_KG = 2.5;
+    // Arm angle within which the limit switch is pressed, from the starting position
+    private static final double SIM_LIMIT_SWITCH_RANGE_RADIANS = Math.toRadians(1);
+    private static final double SIM_PERIOD_SECONDS = 0.02;
+
+    private SingleJointedArmSim armSim;
+    private SparkMaxSim armMotorSim;
+    private DIOSim limitSwitchSim;
+
     /**
      * Creates a new ArmSubsystem
      */
     public ArmSubsystem() {
         this.arm = new SparkMax(Constants.ARM, MotorType.kBrushless);
 
-        arm.configure(
-                new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(false)
-                        .apply(new SoftLimitConfig().reverseSoftLimit(0))
-                        .apply(new ClosedLoopConfig().p(Constants.ARM_kP).i(Constants.ARM_kI)
-                                .d(Constants.ARM_kD)
-                                .apply(new MAXMotionConfig().maxVelocity(Constants.ARM_MAX_VELOCITY.in(Units.RPM))
-                                        .maxAcceleration(
-                                                Constants.ARM_MAX_ACCELERATION.in(Units.RPM.per(Units.Second))))),
-                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
-
         this.armEncoder = arm.getEncoder();
 
-        this.armEncoder.setPosition(0);
+        StartupOrchestrator.submit("Arm/configure", () -> {
+            SparkConfigurator.configure(arm,
+                    new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(false)
+                            .apply(new SoftLimitConfig().reverseSoftLimit(0))
+                            .apply(CanSignalPlan.arm())
+                            .apply(new ClosedLoopConfig().p(Constants.ARM_kP).i(Constants.ARM_kI)
+                                    .d(Constants.ARM_kD)
+                                    .apply(new MAXMotionConfig()
+                                            .maxVelocity(Constants.ARM_MAX_VELOCITY.in(Units.RPM))
+                                            .maxAcceleration(Constants.ARM_MAX_ACCELERATION
+                                                    .in(Units.RPM.per(Units.Second))))),
+                    accessor -> !accessor.getInverted() && accessor.getIdleMode() == IdleMode.kBrake
+                            && SparkConfigurator.matches(accessor.closedLoop.getP(), Constants.ARM_kP)
+                            && SparkConfigurator.matches(accessor.closedLoop.maxMotion.getMaxVelocity(),
+                                    Constants.ARM_MAX_VELOCITY.in(Units.RPM)));
+            armEncoder.setPosition(0);
+        });
 
         this.armPIDController = arm.getClosedLoopController();
 
         this.limitSwitch = new DigitalInput(Constants.ARM_LIMIT_SWITCH);
 
+        // Replay supplies the inputs from the log instead of the hardware
+        this.io = InputLog.isReplay() ? new ArmIO() {} : new ArmIOSparkMax(arm, limitSwitch);
+
         this.setpoint = 0;
 
+        if (RobotBase.isSimulation()) {
+            // Gravity is left out because the arm's angle to horizontal at the
+            // encoder's zero isn't known; the encoder zero is the start of travel.
+            this.armSim = new SingleJointedArmSim(DCMotor.getNEO(1), Constants.ARM_GEAR_RATIO,
+                    SingleJointedArmSim.estimateMOI(SIM_ARM_LENGTH_METERS, SIM_ARM_MASS_KG), SIM_ARM_LENGTH_METERS,
+                    0, Constants.ARM_MAX_POS.in(Units.Radians), false, 0);
+            this.armMotorSim = new SparkMaxSim(arm, DCMotor.getNEO(1));
+            this.limitSwitchSim = new DIOSim(limitSwitch);
+        }
+
         instance = this;
     }
 
@@ -92,8 +140,8 @@ public class ArmSubsystem extends SubsystemBase {
      */
     public void applySpeed(double speed) {
 
-        speed = (armEncoder.getPosition() <= Constants.ARM_MIN_POS.in(Units.Rotations) && speed < 0)
-                || (armEncoder.getPosition()
+        speed = (inputs.positionRotations <= Constants.ARM_MIN_POS.in(Units.Rotations) && speed < 0)
+                || (inputs.positionRotations
                         * Constants.ARM_GEAR_RATIO >= Constants.ARM_MAX_POS.in(Units.Rotations)
                         && speed > 0) ? 0 : speed;
 
@@ -105,7 +153,7 @@ public class ArmSubsystem extends SubsystemBase {
      * <p>If so, zero encoder.
      */
     public void checklimitSwitch() {
-        // if (!limitSwitch.get()) {
+        // if (inputs.limitSwitchPressed) {
         //     armEncoder.setPosition(0);
         // }
     }
@@ -124,7 +172,7 @@ public class ArmSubsystem extends SubsystemBase {
      * @return boolean, true if still.
      */
     public boolean isStill() {
-        return Math.round(armEncoder.getVelocity() * 100) / 100.0 == 0;
+        return Math.round(inputs.velocityRpm * 100) / 100.0 == 0;
     }
 
     /**
@@ -155,10 +203,27 @@ public class ArmSubsystem extends SubsystemBase {
     @Override
     public void periodic() {
         // This method will be called once per scheduler run
+        inputsProfile.start();
+        io.updateInputs(inputs);
+        inputLog.process(inputs);
+        inputsProfile.stop();
     }
 
     @Override
     public void simulationPeriodic() {
         // This method will be called once per scheduler run during simulation
+        if (InputLog.isReplay())
+            return;
+
+        double busVoltage = RoboRioSim.getVInVoltage();
+        armSim.setInputVoltage(armMotorSim.getAppliedOutput() * busVoltage);
+        armSim.update(SIM_PERIOD_SECONDS);
+
+        armMotorSim.iterate(
+                Units.RadiansPerSecond.of(armSim.getVelocityRadPerSec()).in(Units.RPM) * Constants.ARM_GEAR_RATIO,
+                busVoltage, SIM_PERIOD_SECONDS);
+
+        // Active low
+        limitSwitchSim.setValue(armSim.getAngleRads() > SIM_LIMIT_SWITCH_RANGE_RADIANS);
     }
 }
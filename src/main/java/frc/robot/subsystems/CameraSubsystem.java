@@ -4,6 +4,8 @@
 
 package frc.robot.subsystems;
 
+import java.util.Optional;
+
 import edu.wpi.first.apriltag.AprilTagFieldLayout;
 import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.cameraserver.CameraServer;
@@ -12,7 +14,12 @@ import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.util.InputLog;
+import frc.robot.util.LimelightFrame;
 import frc.robot.util.LimelightHelpers;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.ReefTargets;
+import frc.robot.util.StartupOrchestrator;
 
 public class CameraSubsystem extends SubsystemBase {
     
@@ -20,7 +27,20 @@ public class CameraSubsystem extends SubsystemBase {
     public UsbCamera lifecam;
     public HttpCamera limelight1;
     public HttpCamera limelight2;
-    public AprilTagFieldLayout fieldLayout;
+    // Loaded during startup, see getFieldLayout()
+    private final StartupOrchestrator.Step<AprilTagFieldLayout> fieldLayout;
+    private final StartupOrchestrator.Step<ReefTargets> reefTargets;
+
+    // Refreshed once per cycle in periodic(), read by the align commands
+    public LimelightFrame frontFrame;
+    public LimelightFrame backFrame;
+
+    private final InputLog.Entry frontFrameLog = InputLog.entry("FrontLimelight", "LimelightFrame",
+            LimelightFrame.SCHEMA);
+    private final InputLog.Entry backFrameLog = InputLog.entry("BackLimelight", "LimelightFrame",
+            LimelightFrame.SCHEMA);
+
+    private final LoopProfiler.Section framesProfile = LoopProfiler.section("CameraSubsystem/frames");
 
     /**
      * Creates a new CameraSubsystem
@@ -28,22 +48,45 @@ public class CameraSubsystem extends SubsystemBase {
     public CameraSubsystem() {
         instance = this;
 
-        limelight1 = new HttpCamera(Constants.FRONT_LIMELIGHT, "http://10.52.43.11:5800");
-        limelight2 = new HttpCamera(Constants.BACK_LIMELIGHT, "http://10.52.43.12:5800");
+        fieldLayout = StartupOrchestrator.submit("Field layout",
+                () -> AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeAndyMark));
+        reefTargets = StartupOrchestrator.submit("Reef targets", () -> new ReefTargets(
+                fieldLayout.get().orElseThrow(() -> new IllegalStateException("No field layout"))));
 
-        fieldLayout = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeAndyMark);
+        frontFrame = new LimelightFrame(Constants.FRONT_LIMELIGHT);
+        backFrame = new LimelightFrame(Constants.BACK_LIMELIGHT);
 
-        CameraServer.startAutomaticCapture(0);
-        CameraServer.startAutomaticCapture(limelight2);
-        CameraServer.startAutomaticCapture(limelight2);
-        LimelightHelpers.setPipelineIndex(Constants.FRONT_LIMELIGHT, Constants.ODOMETRY_PIPIELINE);
-        
+        StartupOrchestrator.submit("Camera setup", () -> {
+            limelight1 = new HttpCamera(Constants.FRONT_LIMELIGHT, "http://10.52.43.11:5800");
+            limelight2 = new HttpCamera(Constants.BACK_LIMELIGHT, "http://10.52.43.12:5800");
+
+            CameraServer.startAutomaticCapture(0);
+            CameraServer.startAutomaticCapture(limelight2);
+            CameraServer.startAutomaticCapture(limelight2);
+            LimelightHelpers.setPipelineIndex(Constants.FRONT_LIMELIGHT, Constants.ODOMETRY_PIPIELINE);
+        });
     }
 
     public static CameraSubsystem getInstance() {
         return instance;
     }
 
+    /**
+     * @return The field's AprilTag layout, or empty if it failed to load.
+     *         Waits for it to load if called during startup.
+     */
+    public Optional<AprilTagFieldLayout> getFieldLayout() {
+        return fieldLayout.get();
+    }
+
+    /**
+     * @return The scoring poses around the reefs, or empty if they couldn't be
+     *         computed. Waits for them if called during startup.
+     */
+    public Optional<ReefTargets> getReefTargets() {
+        return reefTargets.get();
+    }
+
     /**
      * Example command factory method.
      *
@@ -72,7 +115,15 @@ public class CameraSubsystem extends SubsystemBase {
     @Override
     public void periodic() {
         // This method will be called once per scheduler run
-        
+        framesProfile.start();
+        // In replay the frames come from the log instead of the Limelights
+        if (!InputLog.isReplay()) {
+            frontFrame.update();
+            backFrame.update();
+        }
+        frontFrameLog.process(frontFrame);
+        backFrameLog.process(backFrame);
+        framesProfile.stop();
     }
 
     @Override
@@ -11,14 +11,27 @@ import com.pathplanner.lib.config.PIDConstants;
 import com.pathplanner.lib.config.RobotConfig;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.sim.SparkMaxAlternateEncoderSim;
+import com.revrobotics.sim.SparkMaxSim;
+import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
+import com.revrobotics.spark.config.SparkMaxConfig;
 import com.studica.frc.AHRS;
 import com.studica.frc.AHRS.NavXComType;
+import com.studica.frc.AHRS.NavXUpdateRate;
 
-import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.hal.SimDouble;
+import edu.wpi.first.hal.simulation.SimDeviceDataJNI;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.estimator.MecanumDrivePoseEstimator;
 import edu.wpi.first.math.filter.SlewRateLimiter;
@@ -29,25 +42,54 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj.simulation.SimDeviceSim;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 
+import frc.libs.DriverInputPipeline;
 import frc.robot.Constants;
+import frc.robot.subsystems.io.DriveIO;
+import frc.robot.subsystems.io.DriveIOSim;
+import frc.robot.subsystems.io.DriveIOSparkMax;
+import frc.robot.util.CanSignalPlan;
+import frc.robot.util.DriveKinematics;
+import frc.robot.util.InputLog;
 import frc.robot.util.LimelightHelpers;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.MecanumDriveSim;
+import frc.robot.util.OdometryThread;
+import frc.robot.util.StartupOrchestrator;
 import frc.robot.util.Utilities;
+import frc.robot.util.VisionIngest;
+import frc.robot.util.VisionWeighting;
 
 public class DriveSubsystem extends SubsystemBase {
 
 	private static DriveSubsystem instance;
 
+	// Distance of each wheel from the center of the robot (meters)
+	private static final double WHEEL_OFFSET_X = 0.259;
+	private static final double WHEEL_OFFSET_Y = 0.283;
+
+	// Battery voltage the velocity gains are scaled against
+	private static final double NOMINAL_VOLTAGE = 12;
+	private static final double SPARK_LOOP_PERIOD_SECONDS = 0.001;
+
 	public SparkMax fl;
 	public SparkMax fr;
 	public SparkMax bl;
@@ -78,16 +120,81 @@ public class DriveSubsystem extends SubsystemBase {
 
 	public MecanumDriveKinematics kinematics;
 
-	public ChassisSpeeds chassisSpeeds;
+	// Measured speed, refreshed by updateChassisSpeeds()
+	private final ChassisSpeeds chassisSpeeds = new ChassisSpeeds();
 
 	public MecanumDrivePoseEstimator poseEstimator;
 
+	// Whether vision is fused into the pose estimate. Commands that need pure
+	// odometry clear it and restore it when they end.
 	public boolean odoUseLimelight;
 
 	public double offsetHeadingDeg;
 
 	public Field2d field;
 
+	// Deadband, response curves and slew limits for teleop driving
+	public final DriverInputPipeline driverInput = new DriverInputPipeline(Constants.DRIVER_DEADBAND,
+			DriverInputPipeline.power(Constants.DRIVER_TRANSLATION_EXPONENT),
+			DriverInputPipeline.power(Constants.DRIVER_ROTATION_EXPONENT), Constants.DRIVER_TRANSLATION_SLEW_RATE,
+			Constants.DRIVER_ROTATION_SLEW_RATE, TimedRobot.kDefaultPeriod);
+
+	// set to false to use MegaTag1
+	private static final boolean USE_MEGATAG2 = true;
+	// How far back the pose estimator keeps poses to apply vision to
+	private static final double MAX_VISION_AGE_SECONDS = 1.5;
+
+	public VisionIngest visionIngest;
+
+	public OdometryThread odometryThread;
+
+	// Parsed from pathplanner/settings.json during startup
+	private final StartupOrchestrator.Step<RobotConfig> robotConfig;
+
+	// Sensor values for this cycle, read once at the start of periodic()
+	public final DriveIO.Inputs inputs = new DriveIO.Inputs();
+	private final DriveIO io;
+	private final InputLog.Entry inputLog = InputLog.entry("Drive", "DriveInputs", DriveIO.Inputs.SCHEMA);
+	private final InputLog.Entry odometryLog = InputLog.entry("DriveOdometry", "OdometrySample",
+			OdometryThread.Sample.SCHEMA);
+	private final InputLog.Entry visionLog = InputLog.entry("Vision", "VisionMeasurement",
+			VisionIngest.Measurement.SCHEMA);
+
+	// Filled from the log in replay mode
+	private final OdometryThread.Sample replaySample = new OdometryThread.Sample();
+	private final VisionIngest.Measurement replayMeasurement = new VisionIngest.Measurement();
+
+	// Reused for every odometry sample replayed into the estimator
+	private final MecanumDriveWheelPositions samplePositions = new MecanumDriveWheelPositions();
+
+	// Primitive kinematics with reused holders for the per loop drive math
+	private final DriveKinematics driveKinematics = createDriveKinematics();
+	private final MecanumDriveWheelSpeeds targetWheelSpeeds = new MecanumDriveWheelSpeeds();
+	// Last wheel speed setpoints sent by driveRobotSpeed, in kinematics order
+	private final double[] lastWheelSetpoints = new double[4];
+	private double lastWheelSetpointTime = Double.NEGATIVE_INFINITY;
+
+	// Current vision std devs, only pushed to the estimator when they change
+	private final Matrix<N3, N1> visionStdDevs = new Matrix<>(Nat.N3(), Nat.N1());
+
+	private final LoopProfiler.Section periodicProfile = LoopProfiler.section("DriveSubsystem/periodic");
+	private final LoopProfiler.Section poseEstimateProfile = LoopProfiler.section("DriveSubsystem/updatePoseEstimate");
+
+	// Simulation only, from pathplanner/settings.json
+	private static final double SIM_MASS_KG = 57.5;
+	private static final double SIM_MOI_KG_METERS_SQUARED = 2.9947;
+	private static final double SIM_GEARING = 12.75;
+	private static final double SIM_CURRENT_LIMIT_AMPS = 60;
+	private static final double SIM_WHEEL_COF = 0.6;
+	private static final double SIM_PERIOD_SECONDS = 0.02;
+
+	private MecanumDriveSim physicsSim;
+	// In kinematics order: front left, front right, back left, back right
+	private SparkMaxSim[] motorSims;
+	private SparkMaxAlternateEncoderSim[] encoderSims;
+	private SimDouble gyroSimYaw;
+	private SimDouble gyroSimRate;
+
 	/**
 	 * Creates a new DriveSubsystem
 	 */
@@ -97,6 +204,23 @@ public class DriveSubsystem extends SubsystemBase {
 		this.bl = new SparkMax(Constants.BL, MotorType.kBrushless);
 		this.br = new SparkMax(Constants.BR, MotorType.kBrushless);
 
+		// Status frame rates come from the CAN signal plan. The odometry thread
+		// needs the alternate encoder positions as often as it reads them.
+		// Velocity gains for driveRobotSpeed are applied with them.
+		StartupOrchestrator.submit("Drive/configure", () -> {
+			fl.configure(driveConfig(Constants.FL_kP, Constants.FL_kI, Constants.FL_kD),
+					ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+			fr.configure(driveConfig(Constants.FR_kP, Constants.FR_kI, Constants.FR_kD),
+					ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+			bl.configure(driveConfig(Constants.BL_kP, Constants.BL_kI, Constants.BL_kD),
+					ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+			br.configure(driveConfig(Constants.BR_kP, Constants.BR_kI, Constants.BR_kD),
+					ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+		});
+
+		// Only needed once AutoBuilder is configured
+		this.robotConfig = StartupOrchestrator.submit("PathPlanner config", RobotConfig::fromGUISettings);
+
 		this.flEncoder = fl.getAlternateEncoder();
 		this.frEncoder = fr.getAlternateEncoder();
 		this.blEncoder = bl.getAlternateEncoder();
@@ -120,39 +244,60 @@ public class DriveSubsystem extends SubsystemBase {
 					fr.setVoltage(voltage.magnitude());
 					bl.setVoltage(voltage.magnitude());
 					br.setVoltage(voltage.magnitude());
-					System.out.println("setting: " + voltage.magnitude() + "; getteing " + fl.getBusVoltage());
 				},
 				log -> {
 					log.motor("drive-front-right")
 							.voltage(Units.Volts.of(fr.getBusVoltage()))
-							.linearPosition(Utilities.rotationsToDistance(flEncoder.getPosition()))
-							.linearVelocity(Units.MetersPerSecond.of(frEncoder.getVelocity() * 60 * Math.PI
+							.linearPosition(Utilities.rotationsToDistance(inputs.flPositionRotations))
+							.linearVelocity(Units.MetersPerSecond.of(inputs.frVelocityRpm * 60 * Math.PI
 									* Constants.WHEEL_DIAMETER.in(Units.Meters)));
 
 					log.motor("drive-front-left")
 							.voltage(Units.Volts.of(fl.getBusVoltage()))
-							.linearPosition(Utilities.rotationsToDistance(flEncoder.getPosition()))
-							.linearVelocity(Units.MetersPerSecond.of(flEncoder.getVelocity() * 60 * Math.PI
+							.linearPosition(Utilities.rotationsToDistance(inputs.flPositionRotations))
+							.linearVelocity(Units.MetersPerSecond.of(inputs.flVelocityRpm * 60 * Math.PI
 									* Constants.WHEEL_DIAMETER.in(Units.Meters)));
 
 					log.motor("drive-back-left")
 							.voltage(Units.Volts.of(bl.getBusVoltage()))
-							.linearPosition(Utilities.rotationsToDistance(blEncoder.getPosition()))
-							.linearVelocity(Units.MetersPerSecond.of(blEncoder.getVelocity() * 60 * Math.PI
+							.linearPosition(Utilities.rotationsToDistance(inputs.blPositionRotations))
+							.linearVelocity(Units.MetersPerSecond.of(inputs.blVelocityRpm * 60 * Math.PI
 									* Constants.WHEEL_DIAMETER.in(Units.Meters)));
 
 					log.motor("drive-back-right")
 							.voltage(Units.Volts.of(br.getBusVoltage()))
-							.linearPosition(Utilities.rotationsToDistance(brEncoder.getPosition()))
-							.linearVelocity(Units.MetersPerSecond.of(brEncoder.getVelocity() * 60 * Math.PI
+							.linearPosition(Utilities.rotationsToDistance(inputs.brPositionRotations))
+							.linearVelocity(Units.MetersPerSecond.of(inputs.brVelocityRpm * 60 * Math.PI
 									* Constants.WHEEL_DIAMETER.in(Units.Meters)));
 				},
 				this));
 
-		this.gyro = new AHRS(NavXComType.kUSB1);
+		this.gyro = new AHRS(NavXComType.kUSB1, NavXUpdateRate.k200Hz);
 
 		this.gyro.reset();
 
+		if (RobotBase.isSimulation()) {
+			this.physicsSim = new MecanumDriveSim(DCMotor.getNEO(1), SIM_GEARING,
+					Constants.WHEEL_DIAMETER.in(Units.Meters) / 2, WHEEL_OFFSET_X, WHEEL_OFFSET_Y, SIM_MASS_KG,
+					SIM_MOI_KG_METERS_SQUARED, SIM_CURRENT_LIMIT_AMPS, SIM_WHEEL_COF);
+			this.motorSims = new SparkMaxSim[] { new SparkMaxSim(fl, DCMotor.getNEO(1)),
+					new SparkMaxSim(fr, DCMotor.getNEO(1)), new SparkMaxSim(bl, DCMotor.getNEO(1)),
+					new SparkMaxSim(br, DCMotor.getNEO(1)) };
+			this.encoderSims = new SparkMaxAlternateEncoderSim[] { new SparkMaxAlternateEncoderSim(fl),
+					new SparkMaxAlternateEncoderSim(fr), new SparkMaxAlternateEncoderSim(bl),
+					new SparkMaxAlternateEncoderSim(br) };
+			findGyroSim();
+		}
+
+		// Replay supplies the inputs from the log instead of the hardware, and
+		// simulation takes the navX displacement from the physics model
+		if (InputLog.isReplay())
+			this.io = new DriveIO() {};
+		else if (RobotBase.isSimulation())
+			this.io = new DriveIOSim(fl, fr, bl, br, gyro, physicsSim);
+		else
+			this.io = new DriveIOSparkMax(fl, fr, bl, br, gyro);
+
 		this.offsetHeadingDeg = 0.0;
 
 		// Make it so getAngle is zero when facing red aliiance station
@@ -166,22 +311,39 @@ public class DriveSubsystem extends SubsystemBase {
 		 * TODO:
 		 * - Get max drive speed
 		 */
-		this.kinematics = new MecanumDriveKinematics(new Translation2d(0.259, 0.283), new Translation2d(0.259, -0.283),
-				new Translation2d(-0.259, 0.283), new Translation2d(-0.259, -0.283));
+		this.kinematics = createKinematics();
 
 		this.poseEstimator = new MecanumDrivePoseEstimator(kinematics, this.gyro.getRotation2d(),
 				new MecanumDriveWheelPositions(), Pose2d.kZero);
 
-		RobotConfig config;
-
-		try {
-			config = RobotConfig.fromGUISettings();
-		} catch (Exception e) {
-			// TODO: handle exception
-			config = null;
-			e.printStackTrace();
+		this.odometryThread = new OdometryThread(flEncoder, frEncoder, blEncoder, brEncoder, gyro);
+		this.visionIngest = new VisionIngest(USE_MEGATAG2, Constants.FRONT_LIMELIGHT, Constants.BACK_LIMELIGHT);
+		if (!InputLog.isReplay()) {
+			this.odometryThread.start();
+			this.visionIngest.start();
 		}
 
+		odoUseLimelight = true;
+
+		field = new Field2d();
+
+		SmartDashboard.putData("field", field);
+
+		instance = this;
+	}
+
+	/**
+	 * Configures PathPlanner's AutoBuilder to drive this subsystem. Waits for
+	 * the PathPlanner settings to be parsed, so call it as late in startup as
+	 * possible. If they couldn't be, AutoBuilder is left unconfigured, see
+	 * {@link AutoBuilder#isConfigured()}.
+	 */
+	public void configureAutoBuilder() {
+		Optional<RobotConfig> config = robotConfig.get();
+		if (config.isEmpty()) {
+			DriverStation.reportError("No PathPlanner config, PathPlanner autos and pathfinding are disabled", false);
+			return;
+		}
 		AutoBuilder.configure(
 				this::getPose,
 				this::setPose,
@@ -190,7 +352,7 @@ public class DriveSubsystem extends SubsystemBase {
 				new PPHolonomicDriveController(
 						new PIDConstants(1, 0, 0),
 						new PIDConstants(1, 0, 0)),
-				config,
+				config.get(),
 				() -> {
 					Optional<Alliance> alliance = DriverStation.getAlliance();
 					if (alliance.isPresent()) {
@@ -199,14 +361,6 @@ public class DriveSubsystem extends SubsystemBase {
 					return false;
 				},
 				this);
-
-		odoUseLimelight = true;
-
-		field = new Field2d();
-
-		SmartDashboard.putData("field", field);
-
-		instance = this;
 	}
 
 	/**
@@ -224,72 +378,24 @@ public class DriveSubsystem extends SubsystemBase {
 	}
 
 	/**
-	 * Applies deadzones and exponential scaling to input and uses them to drive the
-	 * robot (robot centric)
+	 * Shapes input with the driver input pipeline and uses it to drive the robot
 	 * 
-	 * @param xSpeed The robot's speed along the X axis [-1.0..1.0]. Forward is
-	 *               positive.
-	 * @param ySpeed The robot's speed along the Y axis [-1.0..1.0]. Left is
-	 *               positive.
-	 * @param zSpeed The robot's rotation rate around the Z axis [-1.0..1.0].
-	 *               Counterclockwise is positive.
+	 * @param xSpeed        The robot's speed along the X axis [-1.0..1.0]. Forward
+	 *                      is positive.
+	 * @param ySpeed        The robot's speed along the Y axis [-1.0..1.0]. Left is
+	 *                      positive.
+	 * @param zSpeed        The robot's rotation rate around the Z axis
+	 *                      [-1.0..1.0]. Counterclockwise is positive.
+	 * @param fieldRelative Whether x and y are relative to the heading saved in
+	 *                      offsetHeadingDeg instead of the robot.
 	 */
-	public void DSMechDrive(double xSpeed, double ySpeed, double zSpeed) {
-		// Apply deadzone
-		double stickDeadzone = 0.15;
-		double squaredMag = xSpeed * xSpeed + ySpeed * ySpeed;
-		if (squaredMag < stickDeadzone * stickDeadzone)
-			xSpeed = ySpeed = 0;
-		else {
-			// change xspeed and yspeed to start at a magnitude of 0 when leaving deadzone
-			if (squaredMag < 1) {
-				double angle = Math.atan2(ySpeed, xSpeed);
-				// change mag to be from dz - 1 to 0 - 1
-				squaredMag = (Math.sqrt(squaredMag) - stickDeadzone) / (1-stickDeadzone);
-				xSpeed = squaredMag * Math.cos(angle);
-				ySpeed = squaredMag * Math.sin(angle);
-			}
-		}
-		
-
-		if (Math.abs(zSpeed) < stickDeadzone)
-			zSpeed = 0;
-
-	
-
-		// Apply exponential rates
-		// if (xSpeed != 0 || ySpeed != 0) {
-		// squaredMag = Math.sqrt(squaredMag);
-		// xSpeed *= squaredMag;
-		// ySpeed *= squaredMag;
-		// }
-		// if (zSpeed != 0) zSpeed = zSpeed * Math.abs(zSpeed);
-
-		// If throttle on primary controller is active then use omni-directional drive
-
-		if (Constants.primaryStick.getRawButton(9)) {
-			
-			offsetHeadingDeg = gyro.getYaw();
-		}
-
-		if (Constants.primaryStick.getThrottle() < -0.5) {
-			double heading = gyro.getYaw();
-			// System.out.println(heading - offsetHeadingDeg);
-			
-			double headingDeg = offsetHeadingDeg - heading;
-			double headingRad = headingDeg / 180.0 * Math.PI;
-
-			double rotX = xSpeed * Math.cos(headingRad) - ySpeed * Math.sin(headingRad);
-        	double rotY = xSpeed * Math.sin(headingRad) + ySpeed * Math.cos(headingRad);
+	public void DSMechDrive(double xSpeed, double ySpeed, double zSpeed, boolean fieldRelative) {
+		if (fieldRelative)
+			driverInput.calculate(xSpeed, ySpeed, zSpeed, Math.toRadians(inputs.yawDegrees - offsetHeadingDeg));
+		else
+			driverInput.calculate(xSpeed, ySpeed, zSpeed);
 
-			xSpeed = rotX;
-			ySpeed = rotY;
-
-			// drive.driveCartesian(xSpeed, ySpeed, zSpeed, gyro.getRotation2d().minus(Rotation2d.fromDegrees(offsetHeadingDeg)));
-		} 
-
-		drive.driveCartesian(xSpeed, ySpeed, zSpeed);
-		
+		drive.driveCartesian(driverInput.getX(), driverInput.getY(), driverInput.getZ());
 	}
 
 	/**
@@ -306,7 +412,12 @@ public class DriveSubsystem extends SubsystemBase {
 	 * centric)
 	 */
 	public void mechDrive() {
-		DSMechDrive(-Constants.primaryStick.getY(), Constants.primaryStick.getX(), Constants.secondaryStick.getX());
+		if (Constants.primaryStick.getRawButton(9))
+			offsetHeadingDeg = inputs.yawDegrees;
+
+		// If throttle on primary controller is active then use omni-directional drive
+		DSMechDrive(-Constants.primaryStick.getY(), Constants.primaryStick.getX(), Constants.secondaryStick.getX(),
+				Constants.primaryStick.getThrottle() < -0.5);
 	}
 
 	/**
@@ -320,7 +431,7 @@ public class DriveSubsystem extends SubsystemBase {
 	 *               Counterclockwise is positive.
 	 */
 	public void fieldMechDrive(double xSpeed, double ySpeed, double zSpeed) {
-		drive.driveCartesian(xSpeed, ySpeed, zSpeed, gyro.getRotation2d());
+		drive.driveCartesian(xSpeed, ySpeed, zSpeed, Rotation2d.fromRadians(inputs.headingRadians));
 	}
 
 	/**
@@ -336,124 +447,105 @@ public class DriveSubsystem extends SubsystemBase {
 	 * <b>MUST BE CALLED EVERY LOOP!
 	 */
 	public void updatePoseEstimate() {
-		poseEstimator.update(gyro.getRotation2d(),
-				new MecanumDriveWheelPositions(Utilities.rotationsToDistance(flEncoder.getPosition()),
-						Utilities.rotationsToDistance(frEncoder.getPosition()),
-						Utilities.rotationsToDistance(blEncoder.getPosition()),
-						Utilities.rotationsToDistance(brEncoder.getPosition())));
+		poseEstimateProfile.start();
+		applyOdometrySamples();
 
+		// Vision frames are received and filtered by visionIngest on its own thread;
+		// here we only hand the current heading to the Limelights and apply what
+		// was accepted since the last loop.
 		// Modified from
 		// https://docs.limelightvision.io/docs/docs-limelight/tutorials/tutorial-swerve-pose-estimation
-		if (odoUseLimelight) {
-
-			// LimelightHelpers.setPipelineIndex(Constants.FRONT_LIMELIGHT, Constants.ODOMETRY_PIPIELINE);
-			boolean useMegaTag2 = true; // set to false to use MegaTag1
-			boolean doRejectUpdate = false;
-
-			// For Front limelight
-			if (useMegaTag2 == false) {
-				LimelightHelpers.PoseEstimate mt1 = LimelightHelpers
-						.getBotPoseEstimate_wpiBlue(Constants.FRONT_LIMELIGHT);
-
-				if (mt1 != null) {
-					if (mt1.tagCount == 1 && mt1.rawFiducials.length == 1) {
-						if (mt1.rawFiducials[0].ambiguity > .7) {
-							doRejectUpdate = true;
-						}
-						if (mt1.rawFiducials[0].distToCamera > 3) {
-							doRejectUpdate = true;
-						}
-					}
-					if (mt1.tagCount == 0) {
-						doRejectUpdate = true;
-					}
+		visionIngest.setYawRate(inputs.yawRateDegreesPerSecond);
+		if (USE_MEGATAG2) {
+			double headingDeg = poseEstimator.getEstimatedPosition().getRotation().getDegrees();
+			LimelightHelpers.SetRobotOrientation_NoFlush(Constants.FRONT_LIMELIGHT, headingDeg, 0, 0, 0, 0, 0);
+			LimelightHelpers.SetRobotOrientation(Constants.BACK_LIMELIGHT, headingDeg, 0, 0, 0, 0, 0);
+		}
 
-					if (!doRejectUpdate) {
-						poseEstimator.setVisionMeasurementStdDevs(VecBuilder.fill(.5, .5, 9999999));
-						poseEstimator.addVisionMeasurement(
-								mt1.pose,
-								mt1.timestampSeconds);
-					}
-				}
-
-			} else if (useMegaTag2 == true) {
-				LimelightHelpers.SetRobotOrientation(Constants.FRONT_LIMELIGHT,
-						poseEstimator.getEstimatedPosition().getRotation().getDegrees(), 0, 0, 0, 0, 0);
-				LimelightHelpers.PoseEstimate mt2 = LimelightHelpers
-						.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.FRONT_LIMELIGHT);
-				if (mt2 != null) {
-					if (Math.abs(gyro.getRate()) > 720) // if our angular velocity is greater than 720 degrees per
-														// second,
-					// ignore vision updates
-					{
-						doRejectUpdate = true;
-					}
-					if (mt2.tagCount == 0) {
-						doRejectUpdate = true;
-					}
-					if (!doRejectUpdate) {
-						poseEstimator.setVisionMeasurementStdDevs(VecBuilder.fill(.7, .7, 9999999));
-						poseEstimator.addVisionMeasurement(
-								mt2.pose,
-								mt2.timestampSeconds);
-					}
-				}
+		// Drained every cycle. Frames older than the estimator's pose history
+		// can't be applied and are dropped, as are all frames while vision is off.
+		VisionIngest.Measurement measurement;
+		ChassisSpeeds speeds = null;
+		double oldestUsable = Timer.getFPGATimestamp() - MAX_VISION_AGE_SECONDS;
+		while ((measurement = nextVisionMeasurement()) != null) {
+			if (odoUseLimelight && measurement.timestampSeconds >= oldestUsable) {
+				if (speeds == null)
+					speeds = updateChassisSpeeds();
+
+				if (VisionWeighting.compute(measurement.tagCount, measurement.avgTagDist, measurement.tagSpan,
+						measurement.maxAmbiguity, measurement.isMegaTag2,
+						Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond),
+						speeds.omegaRadiansPerSecond, visionStdDevs))
+					poseEstimator.setVisionMeasurementStdDevs(visionStdDevs);
+
+				poseEstimator.addVisionMeasurement(
+						new Pose2d(measurement.x, measurement.y, new Rotation2d(measurement.yawRadians)),
+						measurement.timestampSeconds);
 			}
+			if (!InputLog.isReplay())
+				visionIngest.commitRead();
+		}
 
-			// For back limelight
-			// LimelightHelpers.setPipelineIndex(Constants.BACK_LIMELIGHT, Constants.ODOMETRY_PIPIELINE);
-
-			doRejectUpdate = false;
-			if (useMegaTag2 == false) {
-				LimelightHelpers.PoseEstimate mt1 = LimelightHelpers
-						.getBotPoseEstimate_wpiBlue(Constants.BACK_LIMELIGHT);
-				if (mt1 != null) {
-					if (mt1.tagCount == 1 && mt1.rawFiducials.length == 1) {
-						if (mt1.rawFiducials[0].ambiguity > .7) {
-							doRejectUpdate = true;
-						}
-						if (mt1.rawFiducials[0].distToCamera > 3) {
-							doRejectUpdate = true;
-						}
-					}
-					if (mt1.tagCount == 0) {
-						doRejectUpdate = true;
-					}
+		field.setRobotPose(poseEstimator.getEstimatedPosition());
+		poseEstimateProfile.stop();
+	}
 
-					if (!doRejectUpdate) {
-						poseEstimator.setVisionMeasurementStdDevs(VecBuilder.fill(.5, .5, 9999999));
-						poseEstimator.addVisionMeasurement(
-								mt1.pose,
-								mt1.timestampSeconds);
-					}
-				}
-
-			} else if (useMegaTag2 == true) {
-				LimelightHelpers.SetRobotOrientation(Constants.BACK_LIMELIGHT,
-						poseEstimator.getEstimatedPosition().getRotation().getDegrees(), 0, 0, 0, 0, 0);
-				LimelightHelpers.PoseEstimate mt2 = LimelightHelpers
-						.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.BACK_LIMELIGHT);
-				if (mt2 != null) {
-					if (Math.abs(gyro.getRate()) > 720) // if our angular velocity is greater than 720 degrees per
-														// second,
-														// ignore vision updates
-					{
-						doRejectUpdate = true;
-					}
-					if (mt2.tagCount == 0) {
-						doRejectUpdate = true;
-					}
-					if (!doRejectUpdate) {
-						poseEstimator.setVisionMeasurementStdDevs(VecBuilder.fill(.7, .7, 9999999));
-						poseEstimator.addVisionMeasurement(
-								mt2.pose,
-								mt2.timestampSeconds);
-					}
-				}
+	/**
+	 * Applies every odometry sample taken since the last call, or in replay every
+	 * one logged this cycle.
+	 */
+	private void applyOdometrySamples() {
+		if (InputLog.isReplay()) {
+			while (odometryLog.process(replaySample))
+				addOdometrySample(replaySample);
+		} else {
+			OdometryThread.Sample sample;
+			while ((sample = odometryThread.beginRead()) != null) {
+				odometryLog.record(sample);
+				addOdometrySample(sample);
+				odometryThread.commitRead();
 			}
 		}
+	}
 
-		field.setRobotPose(poseEstimator.getEstimatedPosition());
+	/**
+	 * Applies one odometry sample to the pose estimator.
+	 * 
+	 * @param sample Sample to apply.
+	 */
+	private void addOdometrySample(OdometryThread.Sample sample) {
+		samplePositions.frontLeftMeters = sample.frontLeftMeters;
+		samplePositions.frontRightMeters = sample.frontRightMeters;
+		samplePositions.rearLeftMeters = sample.rearLeftMeters;
+		samplePositions.rearRightMeters = sample.rearRightMeters;
+		poseEstimator.updateWithTime(sample.timestampSeconds, Rotation2d.fromRadians(sample.yawRadians),
+				samplePositions);
+	}
+
+	/**
+	 * Gets the next accepted vision measurement and logs it. In replay it comes
+	 * from the log instead of the Limelights.
+	 * 
+	 * @return The measurement, or null if there are no more this cycle. Unless
+	 *         replaying, call visionIngest.commitRead() when done with it.
+	 */
+	private VisionIngest.Measurement nextVisionMeasurement() {
+		if (InputLog.isReplay())
+			return visionLog.process(replayMeasurement) ? replayMeasurement : null;
+
+		VisionIngest.Measurement measurement = visionIngest.beginRead();
+		if (measurement != null)
+			visionLog.record(measurement);
+		return measurement;
+	}
+
+	/**
+	 * Resets the navX displacement used by DriveTo, including this cycle's inputs.
+	 */
+	public void resetDisplacement() {
+		io.resetDisplacement();
+		inputs.displacementXMeters = 0;
+		inputs.displacementYMeters = 0;
 	}
 
 	/**
@@ -466,65 +558,135 @@ public class DriveSubsystem extends SubsystemBase {
 	}
 
 	/**
-	 * Set the current pose of the robot.
+	 * Set the current pose of the robot. Odometry samples and vision frames
+	 * still queued from before the reset are flushed first.
 	 * 
 	 * @param pose Pose of robot to set.
 	 */
 	public void setPose(Pose2d pose) {
+		// Samples taken before the reset have to be applied before it, or their
+		// wheel and gyro deltas would be added on top of the new pose
+		applyOdometrySamples();
+		// Vision frames taken before the reset are dropped. They aren't logged,
+		// so replay never sees them either.
+		if (!InputLog.isReplay()) {
+			while (visionIngest.beginRead() != null)
+				visionIngest.commitRead();
+		}
 		poseEstimator.resetPose(pose);
 	}
 
 	/**
 	 * Get speed of robot chassis using wheel velocities.
+	 * <p>
+	 * Allocates a new object every call, so it's only for callers that keep
+	 * the result, like PathPlanner. Code running every loop should use
+	 * {@link #updateChassisSpeeds()}.
 	 * 
 	 * @return The chassis speed of the robot.
 	 */
 	public ChassisSpeeds getChassisSpeeds() {
-		return kinematics.toChassisSpeeds(
-				new MecanumDriveWheelSpeeds(
-						Units.MetersPerSecond.of(Units.RPM.of(flEncoder.getVelocity()).in(Units.RadiansPerSecond)
-								* Constants.WHEEL_DIAMETER.in(Units.Meters) / 2),
-						Units.MetersPerSecond.of(Units.RPM.of(frEncoder.getVelocity()).in(Units.RadiansPerSecond)
-								* Constants.WHEEL_DIAMETER.in(Units.Meters) / 2),
-						Units.MetersPerSecond.of(Units.RPM.of(blEncoder.getVelocity()).in(Units.RadiansPerSecond)
-								* Constants.WHEEL_DIAMETER.in(Units.Meters) / 2),
-						Units.MetersPerSecond.of(Units.RPM.of(brEncoder.getVelocity()).in(Units.RadiansPerSecond)
-								* Constants.WHEEL_DIAMETER.in(Units.Meters) / 2)));
+		ChassisSpeeds speeds = updateChassisSpeeds();
+		return new ChassisSpeeds(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+	}
+
+	/**
+	 * Allocation free version of {@link #getChassisSpeeds()}. Read the values
+	 * right away, don't keep the object.
+	 *
+	 * @return The chassis speed of the robot, in an object shared by every
+	 *         caller and overwritten by the next call.
+	 */
+	public ChassisSpeeds updateChassisSpeeds() {
+		driveKinematics.toChassisSpeeds(inputs.flVelocityRpm, inputs.frVelocityRpm, inputs.blVelocityRpm,
+				inputs.brVelocityRpm, chassisSpeeds);
+		return chassisSpeeds;
 	}
 
 	/**
-	 * Drives the robot at a certain chassis speed. Uses FeedForward.
+	 * Creates the kinematics for the drivetrain's wheel layout.
+	 * 
+	 * @return Kinematics of the drivetrain.
+	 */
+	public static MecanumDriveKinematics createKinematics() {
+		return new MecanumDriveKinematics(new Translation2d(WHEEL_OFFSET_X, WHEEL_OFFSET_Y),
+				new Translation2d(WHEEL_OFFSET_X, -WHEEL_OFFSET_Y), new Translation2d(-WHEEL_OFFSET_X, WHEEL_OFFSET_Y),
+				new Translation2d(-WHEEL_OFFSET_X, -WHEEL_OFFSET_Y));
+	}
+
+	/**
+	 * Creates the allocation free kinematics for the same wheel layout as
+	 * createKinematics().
+	 * 
+	 * @return Kinematics of the drivetrain.
+	 */
+	public static DriveKinematics createDriveKinematics() {
+		return new DriveKinematics(WHEEL_OFFSET_X, WHEEL_OFFSET_Y);
+	}
+
+	/**
+	 * Drives the robot at a certain chassis speed. Each wheel's velocity is held
+	 * by its SparkMax's closed loop, with feedforward sent as arbitrary
+	 * feedforward.
 	 * 
 	 * @param speeds Target speed of the chassis.
 	 */
 	public void driveRobotSpeed(ChassisSpeeds speeds) {
-		MecanumDriveWheelSpeeds wheelSpeeds = kinematics.toWheelSpeeds(speeds);
-		
-		fl.setVoltage(flFeedForward.calculate(Units.RPM.of(flEncoder.getVelocity()).in(Units.RadiansPerSecond) * Constants.WHEEL_DIAMETER.in(Units.Meters), wheelSpeeds.frontLeftMetersPerSecond));
-		fr.setVoltage(frFeedForward.calculate(Units.RPM.of(frEncoder.getVelocity()).in(Units.RadiansPerSecond) * Constants.WHEEL_DIAMETER.in(Units.Meters), wheelSpeeds.frontRightMetersPerSecond));
-		bl.setVoltage(blFeedForward.calculate(Units.RPM.of(blEncoder.getVelocity()).in(Units.RadiansPerSecond) * Constants.WHEEL_DIAMETER.in(Units.Meters), wheelSpeeds.rearLeftMetersPerSecond));
-		br.setVoltage(brFeedForward.calculate(Units.RPM.of(brEncoder.getVelocity()).in(Units.RadiansPerSecond) * Constants.WHEEL_DIAMETER.in(Units.Meters), wheelSpeeds.rearRightMetersPerSecond));
-
-		// flZPID.setReference(Units.RadiansPerSecond
-		// 		.of(wheelSpeeds.frontLeftMetersPerSecond / (Constants.WHEEL_DIAMETER.in(Units.Meters) / 2))
-		// 		.in(Units.RPM),
-		// 		ControlType.kVelocity);
-
-		// frPID.setReference(Units.RadiansPerSecond
-		// 		.of(wheelSpeeds.frontRightMetersPerSecond / (Constants.WHEEL_DIAMETER.in(Units.Meters) / 2))
-		// 		.in(Units.RPM),
-		// 		ControlType.kVelocity);
-
-		// blPID.setReference(Units.RadiansPerSecond
-		// 		.of(wheelSpeeds.rearLeftMetersPerSecond / (Constants.WHEEL_DIAMETER.in(Units.Meters) / 2))
-		// 		.in(Units.RPM),
-		// 		ControlType.kVelocity);
-
-		// brPID.setReference(Units.RadiansPerSecond
-		// 		.of(wheelSpeeds.rearRightMetersPerSecond / (Constants.WHEEL_DIAMETER.in(Units.Meters) / 2))
-		// 		.in(Units.RPM),
-		// 		ControlType.kVelocity);
+		driveKinematics.toWheelSpeeds(speeds, targetWheelSpeeds);
+
+		// Coming from another control mode, accelerate from where the wheels are
+		double now = Timer.getFPGATimestamp();
+		if (now - lastWheelSetpointTime > 2 * TimedRobot.kDefaultPeriod) {
+			lastWheelSetpoints[0] = inputs.flVelocityRpm * DriveKinematics.METERS_PER_SECOND_PER_RPM;
+			lastWheelSetpoints[1] = inputs.frVelocityRpm * DriveKinematics.METERS_PER_SECOND_PER_RPM;
+			lastWheelSetpoints[2] = inputs.blVelocityRpm * DriveKinematics.METERS_PER_SECOND_PER_RPM;
+			lastWheelSetpoints[3] = inputs.brVelocityRpm * DriveKinematics.METERS_PER_SECOND_PER_RPM;
+		}
+		lastWheelSetpointTime = now;
 
+		setWheelVelocity(0, flPID, flFeedForward, targetWheelSpeeds.frontLeftMetersPerSecond);
+		setWheelVelocity(1, frPID, frFeedForward, targetWheelSpeeds.frontRightMetersPerSecond);
+		setWheelVelocity(2, blPID, blFeedForward, targetWheelSpeeds.rearLeftMetersPerSecond);
+		setWheelVelocity(3, brPID, brFeedForward, targetWheelSpeeds.rearRightMetersPerSecond);
+	}
+
+	/**
+	 * Sends one wheel's velocity setpoint to its SparkMax, with the feedforward
+	 * for getting there from last loop's setpoint.
+	 * 
+	 * @param wheel           Wheel index in kinematics order.
+	 * @param controller      The wheel's closed loop controller.
+	 * @param feedforward     The wheel's feedforward.
+	 * @param metersPerSecond Target wheel speed.
+	 */
+	private void setWheelVelocity(int wheel, SparkClosedLoopController controller,
+			SimpleMotorFeedforward feedforward, double metersPerSecond) {
+		double feedforwardVolts = feedforward.calculateWithVelocities(lastWheelSetpoints[wheel], metersPerSecond);
+		lastWheelSetpoints[wheel] = metersPerSecond;
+		controller.setReference(DriveKinematics.toRpm(metersPerSecond), ControlType.kVelocity, ClosedLoopSlot.kSlot0,
+				feedforwardVolts, ArbFFUnits.kVoltage);
+	}
+
+	/**
+	 * Creates a drive motor's config: the CAN signal plan and a velocity closed
+	 * loop on the wheel encoder.
+	 * <p>
+	 * The gains are in volts per meter per second of error, like the
+	 * feedforward. The SparkMax works in duty cycle per wheel RPM and runs its
+	 * loop every millisecond, so they are converted here.
+	 * 
+	 * @param kP Proportional gain.
+	 * @param kI Integral gain.
+	 * @param kD Derivative gain.
+	 * @return The config.
+	 */
+	private static SparkMaxConfig driveConfig(double kP, double kI, double kD) {
+		double scale = DriveKinematics.METERS_PER_SECOND_PER_RPM / NOMINAL_VOLTAGE;
+		SparkMaxConfig config = new SparkMaxConfig();
+		config.apply(CanSignalPlan.drive());
+		config.closedLoop.feedbackSensor(FeedbackSensor.kAlternateOrExternalEncoder)
+				.pid(kP * scale, kI * scale * SPARK_LOOP_PERIOD_SECONDS, kD * scale / SPARK_LOOP_PERIOD_SECONDS);
+		return config;
 	}
 
 	public static DriveSubsystem getInstance() {
@@ -559,19 +721,56 @@ public class DriveSubsystem extends SubsystemBase {
 	@Override
 	public void periodic() {
 		// This method will be called once per scheduler run
+		periodicProfile.start();
+		io.updateInputs(inputs);
+		inputLog.process(inputs);
+		// Every cycle, so samples queued while disabled aren't applied on enable
+		updatePoseEstimate();
 		if (RobotState.isEnabled()) {
-			updatePoseEstimate();
 			drive.setSafetyEnabled(false);
-			odoUseLimelight = false;
 		// 	System.out.println("fl: " + flEncoder.getPosition());
 		// 	System.out.println("fr: " + frEncoder.getPosition());
 		// 	System.out.println("br: " + brEncoder.getPosition());
 		// 	System.out.println("bl: " + blEncoder.getPosition());
 		}
+		periodicProfile.stop();
 	}
 
 	@Override
 	public void simulationPeriodic() {
 		// This method will be called once per scheduler run during simulation
+		if (InputLog.isReplay())
+			return;
+
+		double busVoltage = RoboRioSim.getVInVoltage();
+		physicsSim.update(motorSims[0].getAppliedOutput() * busVoltage, motorSims[1].getAppliedOutput() * busVoltage,
+				motorSims[2].getAppliedOutput() * busVoltage, motorSims[3].getAppliedOutput() * busVoltage,
+				SIM_PERIOD_SECONDS);
+
+		// The alternate encoders are on the wheels, the built in ones on the motors
+		for (int i = 0; i < 4; i++) {
+			double wheelRpm = physicsSim.getWheelVelocityRpm(i);
+			motorSims[i].iterate(wheelRpm * SIM_GEARING, busVoltage, SIM_PERIOD_SECONDS);
+			encoderSims[i].setPosition(physicsSim.getWheelPositionRotations(i));
+			encoderSims[i].setVelocity(wheelRpm);
+		}
+
+		// The navX is clockwise positive and wraps at +-180 degrees
+		if (gyroSimYaw != null)
+			gyroSimYaw.set(-MathUtil.inputModulus(Math.toDegrees(physicsSim.getHeadingRadians()), -180, 180));
+		if (gyroSimRate != null)
+			gyroSimRate.set(-Math.toDegrees(physicsSim.getOmegaRadiansPerSecond()));
+	}
+
+	/**
+	 * Finds the yaw and rate values of the navX's sim device, if the navX
+	 * library created one.
+	 */
+	private void findGyroSim() {
+		for (SimDeviceDataJNI.SimDeviceInfo info : SimDeviceSim.enumerateDevices("navX-Sensor")) {
+			SimDeviceSim device = new SimDeviceSim(info.name);
+			gyroSimYaw = device.getDouble("Yaw");
+			gyroSimRate = device.getDouble("Rate");
+		}
 	}
 }
@@ -4,23 +4,44 @@
 
 package frc.robot.subsystems;
 
+import java.util.function.Predicate;
+
 import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkBase.ControlType;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.sim.SparkMaxSim;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.config.ClosedLoopConfig;
+import com.revrobotics.spark.config.MAXMotionConfig;
 import com.revrobotics.spark.config.SoftLimitConfig;
 import com.revrobotics.spark.config.SparkMaxConfig;
+import com.revrobotics.spark.config.SparkMaxConfigAccessor;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
+import edu.wpi.first.math.controller.ElevatorFeedforward;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.subsystems.io.ElevatorIO;
+import frc.robot.subsystems.io.ElevatorIOSparkMax;
+import frc.robot.util.CanSignalPlan;
+import frc.robot.util.InputLog;
+import frc.robot.util.SparkConfigurator;
+import frc.robot.util.StartupOrchestrator;
+import frc.robot.util.LoopProfiler;
 
 public class ElevatorSubsytem extends SubsystemBase {
 	
@@ -39,9 +60,40 @@ public class ElevatorSubsytem extends SubsystemBase {
 
 	public DigitalInput limitSwitch;
 
-	public double manualSetpoint;
+	public ElevatorFeedforward feedforward;
+
 	public boolean done;
 
+	// Copy of the MAXMotion profile, stepped every loop to know which velocity
+	// the SparkMaxes are aiming for and feed forward for it
+	private final TrapezoidProfile profile = new TrapezoidProfile(new TrapezoidProfile.Constraints(
+			Constants.ELEVATOR_MAX_VELOCITY.in(Units.RotationsPerSecond),
+			Constants.ELEVATOR_MAX_ACCELERATION.in(Units.RotationsPerSecondPerSecond)));
+	private final TrapezoidProfile.State goal = new TrapezoidProfile.State();
+	private TrapezoidProfile.State profileSetpoint = new TrapezoidProfile.State();
+	// False while the elevator is driven by duty cycle
+	private boolean profiling;
+
+	private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+	// Sensor values for this cycle, read once at the start of periodic()
+	public final ElevatorIO.Inputs inputs = new ElevatorIO.Inputs();
+	private final ElevatorIO io;
+	private final InputLog.Entry inputLog = InputLog.entry("Elevator", "ElevatorInputs", ElevatorIO.Inputs.SCHEMA);
+
+	private final LoopProfiler.Section inputsProfile = LoopProfiler.section("ElevatorSubsytem/inputs");
+
+	// Simulation only, matches ELEVATOR_kG
+	private static final double SIM_CARRIAGE_MASS_KG = 6.3;
+	// Height above the bottom at which the hall effect sensor stops seeing the magnet
+	private static final double SIM_HALL_EFFECT_RANGE_METERS = 0.01;
+	private static final double SIM_PERIOD_SECONDS = 0.02;
+
+	private ElevatorSim elevatorSim;
+	private SparkMaxSim elevatorMotorSim;
+	private SparkMaxSim elevatorMinionMotorSim;
+	private DIOSim limitSwitchSim;
+
     /**
      * Creates a new ElevatorSubsystem
      */
@@ -50,16 +102,20 @@ public class ElevatorSubsytem extends SubsystemBase {
 		this.elevator = new SparkMax(Constants.ELEVATOR_PRIMARY, MotorType.kBrushless);
 		this.elevatorMinion = new SparkMax(Constants.ELEVATOR_SECONDARY, MotorType.kBrushless);
 
-		elevator.configure(
+		StartupOrchestrator.submit("Elevator/configure primary", () -> SparkConfigurator.configure(elevator,
 				new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(true)
-						.apply(new SoftLimitConfig().reverseSoftLimit(0)),
-				ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+						.apply(new SoftLimitConfig().reverseSoftLimit(0))
+						.apply(CanSignalPlan.elevator())
+						.apply(closedLoopConfig()),
+				verifyConfig(true)));
 
 		// With own pid
-		elevatorMinion.configure(
+		StartupOrchestrator.submit("Elevator/configure secondary", () -> SparkConfigurator.configure(elevatorMinion,
 				new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(false)
-						.apply(new SoftLimitConfig().reverseSoftLimit(0)),
-				ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+						.apply(new SoftLimitConfig().reverseSoftLimit(0))
+						.apply(CanSignalPlan.elevator())
+						.apply(closedLoopConfig()),
+				verifyConfig(false)));
 
 		this.elevatorEncoder = elevator.getEncoder();
 		this.elevatorMinionEncoder = elevatorMinion.getEncoder();
@@ -69,7 +125,24 @@ public class ElevatorSubsytem extends SubsystemBase {
 		this.elevatorPIDController = elevator.getClosedLoopController();
 		this.elevatorMinionPIDController = elevatorMinion.getClosedLoopController();
 
-		this.manualSetpoint = 0;
+		// Replay supplies the inputs from the log instead of the hardware
+		this.io = InputLog.isReplay() ? new ElevatorIO() {} : new ElevatorIOSparkMax(elevator, elevatorMinion, limitSwitch);
+
+		// Gravity and velocity only, see ELEVATOR_kG
+		this.feedforward = new ElevatorFeedforward(0, Constants.ELEVATOR_kG, Constants.ELEVATOR_kV, 0,
+				LOOP_PERIOD_SECONDS);
+
+		if (RobotBase.isSimulation()) {
+			// Only the ratio of drum radius to gearing matters to the model, so the
+			// gearing is folded into a drum that moves ELEVATOR_HEIGHT_PER_MOTOR_ROT
+			// per rotation.
+			this.elevatorSim = new ElevatorSim(DCMotor.getNEO(2), 1, SIM_CARRIAGE_MASS_KG,
+					Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Meters) / (2 * Math.PI), 0,
+					Constants.ELEVATOR_MAX_HEIGHT.in(Units.Meters), true, 0);
+			this.elevatorMotorSim = new SparkMaxSim(elevator, DCMotor.getNEO(1));
+			this.elevatorMinionMotorSim = new SparkMaxSim(elevatorMinion, DCMotor.getNEO(1));
+			this.limitSwitchSim = new DIOSim(limitSwitch);
+		}
 
 		instance = this;
 	}
@@ -78,6 +151,29 @@ public class ElevatorSubsytem extends SubsystemBase {
 		return instance;
 	}
 
+	/**
+	 * @return PID and MAXMotion settings shared by both motors. Position is in
+	 *         motor rotations, velocity in RPM.
+	 */
+	private static ClosedLoopConfig closedLoopConfig() {
+		return new ClosedLoopConfig().p(Constants.ELEVATOR_kP).i(Constants.ELEVATOR_kI).d(Constants.ELEVATOR_kD)
+				.apply(new MAXMotionConfig().maxVelocity(Constants.ELEVATOR_MAX_VELOCITY.in(Units.RPM))
+						.maxAcceleration(Constants.ELEVATOR_MAX_ACCELERATION.in(Units.RPM.per(Units.Second)))
+						.allowedClosedLoopError(Constants.ELEVATOR_TOLERANCE));
+	}
+
+	/**
+	 * @return Checks the settings from the motor configs that matter most.
+	 */
+	private static Predicate<SparkMaxConfigAccessor> verifyConfig(boolean inverted) {
+		return accessor -> accessor.getInverted() == inverted && accessor.getIdleMode() == IdleMode.kBrake
+				&& SparkConfigurator.matches(accessor.closedLoop.getP(), Constants.ELEVATOR_kP)
+				&& SparkConfigurator.matches(accessor.closedLoop.maxMotion.getMaxVelocity(),
+						Constants.ELEVATOR_MAX_VELOCITY.in(Units.RPM))
+				&& SparkConfigurator.matches(accessor.closedLoop.maxMotion.getMaxAcceleration(),
+						Constants.ELEVATOR_MAX_ACCELERATION.in(Units.RPM.per(Units.Second)));
+	}
+
 	/**
      * TeleOperated control for arm.
      * @deprecated Use elevator(double speed) instead.
@@ -109,54 +205,85 @@ public class ElevatorSubsytem extends SubsystemBase {
 	 * @param motor motor to run.
 	 */
 	public void applySpeed(double speed, SparkMax motor) {
-		if (!limitSwitch.get()) {
+		profiling = false;
+		if (inputs.atBottom) {
 			motor.getEncoder().setPosition(0);
+			if (motor == elevator)
+				inputs.positionRotations = 0;
+			else
+				inputs.minionPositionRotations = 0;
 		}
 
 
-		speed = (elevatorEncoder.getPosition() <= 0 && speed < 0) || (elevatorEncoder.getPosition()
+		speed = (inputs.positionRotations <= 0 && speed < 0) || (inputs.positionRotations
 				* Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Meters) >= Constants.ELEVATOR_MAX_HEIGHT.in(Units.Meters)
 				&& speed > 0) ? 0 : speed;
 
 		motor.set(speed);
 	}
 
-	@Deprecated
-	public void setTargetPositionPID(double rotations) {
-		elevatorPIDController.setReference(rotations, ControlType.kMAXMotionPositionControl);
-		elevatorMinionPIDController.setReference(rotations, ControlType.kMAXMotionPositionControl);
-	}
-
 	/**
-	 * Set target position using manual run to setpoint functions.
-	 * @param rotations
+	 * Set target position for the MAXMotion profile. Follow it with
+	 * runToSetpoint() every tick.
+	 * @param rotations Target position in motor rotations.
 	 */
-	public void setTargetPositionMan(double rotations) {
-		manualSetpoint = rotations;
+	public void setTargetPosition(double rotations) {
+		double max = Constants.ELEVATOR_MAX_HEIGHT.in(Units.Meters)
+				/ Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Meters);
+		goal.position = Math.max(0, Math.min(max, rotations));
+		goal.velocity = 0;
+
+		// Continue from the current setpoint if already moving on a profile
+		if (!profiling) {
+			profileSetpoint = new TrapezoidProfile.State(inputs.positionRotations, inputs.velocityRpm / 60);
+			profiling = true;
+		}
 		done = false;
 	}
 
 	/**
-	 * Runs to setpoint specified by setTargetPositionMan()
+	 * Runs to the setpoint specified by setTargetPosition() on the SparkMaxes,
+	 * with gravity and profile feedforward, and holds there once reached.
 	 * <p>Must be called every tick.
 	 */
 	public void runToSetpoint() {
-		if (elevatorEncoder.getPosition() < manualSetpoint - Constants.ELEVATOR_MAN_TOLERANCE || elevatorEncoder.getPosition() > manualSetpoint + Constants.ELEVATOR_MAN_TOLERANCE) {
-			double diff = (manualSetpoint - elevatorEncoder.getPosition()) / (40);
-			diff = diff > 1 ? 1 : diff;
-			diff = diff < -1 ? -1 : diff;
-			diff = Math.abs(diff) < .3 ? Math.signum(diff) * .3 : diff;
-			applySpeed(diff, elevator);
-		} else {
-			done = true;
-		}
-		if (elevatorMinionEncoder.getPosition() < manualSetpoint - Constants.ELEVATOR_MAN_TOLERANCE || elevatorMinionEncoder.getPosition() > manualSetpoint + Constants.ELEVATOR_MAN_TOLERANCE) {
-			double diff = (manualSetpoint - elevatorMinionEncoder.getPosition()) / (40);
-			diff = diff > 1 ? 1 : diff;
-			diff = diff < -1 ? -1 : diff;
-			diff = Math.abs(diff) < .3 ? Math.signum(diff) * .3 : diff;
-			applySpeed(diff, elevatorMinion);
+		if (inputs.atBottom) {
+			elevatorEncoder.setPosition(0);
+			elevatorMinionEncoder.setPosition(0);
+			inputs.positionRotations = 0;
+			inputs.minionPositionRotations = 0;
 		}
+
+		TrapezoidProfile.State next = profile.calculate(LOOP_PERIOD_SECONDS, profileSetpoint, goal);
+		double feedforwardVolts = feedforward.calculateWithVelocities(profileSetpoint.velocity, next.velocity);
+		profileSetpoint = next;
+
+		elevatorPIDController.setReference(goal.position, ControlType.kMAXMotionPositionControl,
+				ClosedLoopSlot.kSlot0, feedforwardVolts, ArbFFUnits.kVoltage);
+		elevatorMinionPIDController.setReference(goal.position, ControlType.kMAXMotionPositionControl,
+				ClosedLoopSlot.kSlot0, feedforwardVolts, ArbFFUnits.kVoltage);
+
+		if (profileSetpoint.position == goal.position
+				&& Math.abs(inputs.positionRotations - goal.position) < Constants.ELEVATOR_TOLERANCE)
+			done = true;
+	}
+
+	/**
+	 * @return Target position of the profile in motor rotations.
+	 */
+	public double getTargetPosition() {
+		return goal.position;
+	}
+
+	/**
+	 * Holds the elevator. Keeps the last target if it was running to one,
+	 * otherwise holds where the elevator is.
+	 * <p>Must be called every tick.
+	 */
+	public void hold() {
+		if (!profiling)
+			setTargetPosition(inputs.positionRotations);
+		runToSetpoint();
 	}
 
 	
@@ -165,7 +292,7 @@ public class ElevatorSubsytem extends SubsystemBase {
      * @return boolean, true if still.
      */
 	public boolean isStill() {
-		return elevatorEncoder.getVelocity() == 0 && elevatorMinionEncoder.getVelocity() == 0;
+		return inputs.velocityRpm == 0 && inputs.minionVelocityRpm == 0;
 	}
 
 	/**
@@ -203,11 +330,34 @@ public class ElevatorSubsytem extends SubsystemBase {
 	@Override
 	public void periodic() {
 		// This method will be called once per scheduler run
-
+		inputsProfile.start();
+		io.updateInputs(inputs);
+		inputLog.process(inputs);
+		inputsProfile.stop();
+
+		// Motors are off while disabled, so start from where the elevator is on enable
+		if (RobotState.isDisabled())
+			profiling = false;
 	}
 
 	@Override
 	public void simulationPeriodic() {
 		// This method will be called once per scheduler run during simulation
+		if (InputLog.isReplay())
+			return;
+
+		// Both motors drive the same carriage, so it sees their average voltage
+		double busVoltage = RoboRioSim.getVInVoltage();
+		elevatorSim.setInputVoltage(
+				(elevatorMotorSim.getAppliedOutput() + elevatorMinionMotorSim.getAppliedOutput()) / 2 * busVoltage);
+		elevatorSim.update(SIM_PERIOD_SECONDS);
+
+		double motorRpm = elevatorSim.getVelocityMetersPerSecond()
+				/ Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Meters) * 60;
+		elevatorMotorSim.iterate(motorRpm, busVoltage, SIM_PERIOD_SECONDS);
+		elevatorMinionMotorSim.iterate(motorRpm, busVoltage, SIM_PERIOD_SECONDS);
+
+		// Active low
+		limitSwitchSim.setValue(elevatorSim.getPositionMeters() > SIM_HALL_EFFECT_RANGE_METERS);
 	}
 }
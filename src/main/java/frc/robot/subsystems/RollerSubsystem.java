@@ -6,25 +6,37 @@ package frc.robot.subsystems;
 
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkClosedLoopController;
 
 import com.playingwithfusion.TimeOfFlight;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.sim.SparkMaxSim;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.config.ClosedLoopConfig;
 import com.revrobotics.spark.config.MAXMotionConfig;
 import com.revrobotics.spark.config.SparkMaxConfig;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.subsystems.io.RollerIO;
+import frc.robot.subsystems.io.RollerIOSim;
+import frc.robot.subsystems.io.RollerIOSparkMax;
+import frc.robot.util.CanSignalPlan;
+import frc.robot.util.InputLog;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.SparkConfigurator;
+import frc.robot.util.StartupOrchestrator;
 
 public class RollerSubsystem extends SubsystemBase {
 
@@ -40,6 +52,20 @@ public class RollerSubsystem extends SubsystemBase {
 
     public SparkClosedLoopController rollerPIDController;
 
+    // Sensor values for this cycle, read once at the start of periodic()
+    public final RollerIO.Inputs inputs = new RollerIO.Inputs();
+    private final RollerIO io;
+    private final InputLog.Entry inputLog = InputLog.entry("Roller", "RollerInputs", RollerIO.Inputs.SCHEMA);
+
+    private final LoopProfiler.Section inputsProfile = LoopProfiler.section("RollerSubsystem/inputs");
+
+    // Simulation only, estimated moment of inertia of the rollers and a coral
+    private static final double SIM_ROLLER_MOI_KG_METERS_SQUARED = 0.0005;
+    private static final double SIM_PERIOD_SECONDS = 0.02;
+
+    private FlywheelSim rollerSim;
+    private SparkMaxSim rollerMotorSim;
+
     /**
      * Creates a new RollerSubsystem
      */
@@ -47,18 +73,37 @@ public class RollerSubsystem extends SubsystemBase {
 
         this.roller = new SparkMax(Constants.ROLLER, MotorType.kBrushless);
 
-        roller.configure(
-                new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(false)
-                        .apply(new ClosedLoopConfig().p(Constants.ROLLER_kP).i(Constants.ROLLER_kI)
-                                .d(Constants.ROLLER_kD).apply(new MAXMotionConfig().maxVelocity(90))),
-                ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
-
         this.rollerEncoder = roller.getEncoder();
 
-        this.rollerEncoder.setPosition(0);
+        StartupOrchestrator.submit("Roller/configure", () -> {
+            SparkConfigurator.configure(roller,
+                    new SparkMaxConfig().idleMode(IdleMode.kBrake).disableFollowerMode().inverted(false)
+                            .apply(CanSignalPlan.roller())
+                            .apply(new ClosedLoopConfig().p(Constants.ROLLER_kP).i(Constants.ROLLER_kI)
+                                    .d(Constants.ROLLER_kD).apply(new MAXMotionConfig().maxVelocity(90))),
+                    accessor -> !accessor.getInverted() && accessor.getIdleMode() == IdleMode.kBrake
+                            && SparkConfigurator.matches(accessor.closedLoop.getP(), Constants.ROLLER_kP));
+            rollerEncoder.setPosition(0);
+        });
 
         this.laser = new TimeOfFlight(Constants.TIME_OF_FLIGHT);
 
+        // Replay supplies the inputs from the log instead of the hardware, and
+        // simulation models the time of flight sensor
+        if (InputLog.isReplay())
+            this.io = new RollerIO() {};
+        else if (RobotBase.isSimulation())
+            this.io = new RollerIOSim(roller);
+        else
+            this.io = new RollerIOSparkMax(roller, laser);
+
+        if (RobotBase.isSimulation()) {
+            this.rollerSim = new FlywheelSim(
+                    LinearSystemId.createFlywheelSystem(DCMotor.getNEO(1), SIM_ROLLER_MOI_KG_METERS_SQUARED, 1),
+                    DCMotor.getNEO(1));
+            this.rollerMotorSim = new SparkMaxSim(roller, DCMotor.getNEO(1));
+        }
+
         this.sysId = new SysIdRoutine(new SysIdRoutine.Config(), new SysIdRoutine.Mechanism(
                 voltage -> {
                     roller.setVoltage(voltage);
@@ -67,9 +112,9 @@ public class RollerSubsystem extends SubsystemBase {
                     log.motor("roller")
                             .voltage(Units.Volts.of(roller.getBusVoltage()))
                             .linearPosition(Units.Inches
-                                    .of(rollerEncoder.getPosition() * Constants.ROLLER_DIAMETER.in(Units.Inches) * Math.PI))
+                                    .of(inputs.positionRotations * Constants.ROLLER_DIAMETER.in(Units.Inches) * Math.PI))
                             .linearVelocity(Units.Inches.per(Units.Minute)
-                                    .of(rollerEncoder.getVelocity() * Constants.ROLLER_DIAMETER.in(Units.Inches)));
+                                    .of(inputs.velocityRpm * Constants.ROLLER_DIAMETER.in(Units.Inches)));
                 },
                 this));
 
@@ -111,12 +156,20 @@ public class RollerSubsystem extends SubsystemBase {
         rollerPIDController.setReference(dist.in(Units.Rotations), ControlType.kMAXMotionPositionControl);
     }
 
+    /**
+     * Zeroes the roller encoder, including this cycle's inputs.
+     */
+    public void resetPosition() {
+        rollerEncoder.setPosition(0);
+        inputs.positionRotations = 0;
+    }
+
     /**
      * Detects if the rollers are practically still.
      * @return boolean, true if still.
      */
     public boolean isStill() {
-        return Math.round(rollerEncoder.getVelocity() * 100) / 100.0 == 0;
+        return Math.round(inputs.velocityRpm * 100) / 100.0 == 0;
     }
 
     /**
@@ -147,12 +200,22 @@ public class RollerSubsystem extends SubsystemBase {
     @Override
     public void periodic() {
         // This method will be called once per scheduler run
-        
-        // System.out.println(laser.getRange());
+        inputsProfile.start();
+        io.updateInputs(inputs);
+        inputLog.process(inputs);
+        inputsProfile.stop();
     }
 
     @Override
     public void simulationPeriodic() {
         // This method will be called once per scheduler run during simulation
+        if (InputLog.isReplay())
+            return;
+
+        double busVoltage = RoboRioSim.getVInVoltage();
+        rollerSim.setInputVoltage(rollerMotorSim.getAppliedOutput() * busVoltage);
+        rollerSim.update(SIM_PERIOD_SECONDS);
+
+        rollerMotorSim.iterate(rollerSim.getAngularVelocityRPM(), busVoltage, SIM_PERIOD_SECONDS);
     }
 }
@@ -0,0 +1,188 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.units.Units;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.Distance;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
+
+/**
+ * Moves the elevator and arm together to a goal height and angle without the
+ * arm hitting anything.
+ * <p>
+ * Which arm angles are safe depends on the elevator height, as given by
+ * {@link #ENVELOPE}. Every loop the planner sends the arm to the goal angle if
+ * it is safe for the rest of the elevator's travel, otherwise to the closest
+ * angle that is. The elevator runs toward the goal height as far as the arm's
+ * current angle is safe, so both move at once whenever they can. The goal can
+ * be changed at any time and both mechanisms carry on from where they are.
+ */
+public class Superstructure extends SubsystemBase {
+
+    private static Superstructure instance;
+
+    // Lowest arm angle while the elevator travels, ArmLocation.DURING_ELEVATOR_MOVEMENT
+    private static final double TRAVEL_MIN_DEGREES = 55;
+    // Lowest arm angle at a scoring height, ArmLocation.LOW_CORAL
+    private static final double SCORING_MIN_DEGREES = 45;
+
+    /**
+     * Safe arm angles from each elevator height up to the next entry:
+     * { height (inches), min angle (degrees), max angle (degrees) }.
+     * <p>
+     * At the bottom the arm can go down to intake. Within an inch of the
+     * THROUGH, LOW_CORAL and MID_CORAL heights it can go down to the scoring
+     * angle. Everywhere else it has to stay at the travel angle, like the
+     * ArmTo, ElevatorTo, ArmTo sequences this replaced.
+     */
+    private static final double[][] ENVELOPE = {
+            { 0, Constants.ARM_MIN_POS.in(Units.Degrees), Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 2, TRAVEL_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 2.5, SCORING_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 4.5, TRAVEL_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 12, SCORING_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 14, TRAVEL_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 29, SCORING_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+            { 31, TRAVEL_MIN_DEGREES, Constants.ARM_MAX_POS.in(Units.Degrees) },
+    };
+
+    // Resolution of the precomputed envelope lookup
+    private static final double STEP_INCHES = 0.5;
+
+    // How far outside the envelope the measured arm angle may be and still
+    // count as safe, so steady state error doesn't stop the elevator
+    private static final double ANGLE_TOLERANCE_DEGREES = 3;
+
+    // Same as ArmTo
+    private static final double ARM_DONE_TOLERANCE_ROTATIONS = .5;
+
+    private static final double[] minAngleDegrees;
+    private static final double[] maxAngleDegrees;
+
+    static {
+        int cells = (int) Math.ceil(Constants.ELEVATOR_MAX_HEIGHT.in(Units.Inches) / STEP_INCHES) + 1;
+        minAngleDegrees = new double[cells];
+        maxAngleDegrees = new double[cells];
+        for (int i = 0; i < cells; i++) {
+            double height = i * STEP_INCHES;
+            for (double[] band : ENVELOPE) {
+                if (band[0] <= height) {
+                    minAngleDegrees[i] = band[1];
+                    maxAngleDegrees[i] = band[2];
+                }
+            }
+        }
+    }
+
+    public final ElevatorSubsytem elevator;
+    public final ArmSubsystem arm;
+
+    private double goalHeightInches;
+    private double goalAngleDegrees;
+
+    private double elevatorTargetInches;
+    private double armTargetDegrees;
+
+    /**
+     * Creates a new Superstructure
+     *
+     * @param elevator The elevator.
+     * @param arm      The arm on the elevator.
+     */
+    public Superstructure(ElevatorSubsytem elevator, ArmSubsystem arm) {
+        this.elevator = elevator;
+        this.arm = arm;
+
+        instance = this;
+    }
+
+    public static Superstructure getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the goal. Follow it with update() every tick.
+     *
+     * @param height Elevator height.
+     * @param angle  Arm angle.
+     */
+    public void setGoal(Distance height, Angle angle) {
+        goalHeightInches = Math.max(0, Math.min(Constants.ELEVATOR_MAX_HEIGHT.in(Units.Inches), height.in(Units.Inches)));
+        goalAngleDegrees = angle.in(Units.Degrees);
+    }
+
+    /**
+     * Plans this loop's elevator and arm targets from where they are and sends
+     * them.
+     * <p>Must be called every tick.
+     */
+    public void update() {
+        double heightInches = elevator.inputs.positionRotations
+                * Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Inches);
+        double angleDegrees = getArmAngleDegrees();
+
+        int from = cell(heightInches);
+        int to = cell(goalHeightInches);
+        int step = Integer.signum(to - from);
+
+        // Arm: the goal angle, limited to what is safe over the rest of the travel
+        double min = Double.NEGATIVE_INFINITY;
+        double max = Double.POSITIVE_INFINITY;
+        for (int i = from; ; i += step) {
+            min = Math.max(min, minAngleDegrees[i]);
+            max = Math.min(max, maxAngleDegrees[i]);
+            if (i == to)
+                break;
+        }
+        armTargetDegrees = Math.max(min, Math.min(max, goalAngleDegrees));
+
+        // Elevator: toward the goal for as long as the arm is safe where it is now
+        if (!isSafe(from, angleDegrees)) {
+            elevatorTargetInches = heightInches;
+        } else {
+            int reach = from;
+            while (reach != to && isSafe(reach + step, angleDegrees))
+                reach += step;
+            elevatorTargetInches = reach == to ? goalHeightInches : (reach + 0.5) * STEP_INCHES;
+        }
+
+        elevator.setTargetPosition(elevatorTargetInches / Constants.ELEVATOR_HEIGHT_PER_MOTOR_ROT.in(Units.Inches));
+        elevator.runToSetpoint();
+        arm.setTargetPosition(toArmRotations(armTargetDegrees));
+    }
+
+    /**
+     * @return True once both mechanisms are at the goal.
+     */
+    public boolean atGoal() {
+        return elevatorTargetInches == goalHeightInches && elevator.isDone()
+                && armTargetDegrees == goalAngleDegrees
+                && Math.abs(arm.inputs.positionRotations - toArmRotations(goalAngleDegrees))
+                        < ARM_DONE_TOLERANCE_ROTATIONS;
+    }
+
+    /**
+     * @return Arm angle in degrees. The arm encoder is zeroed at ARM_MIN_POS.
+     */
+    public double getArmAngleDegrees() {
+        return Constants.ARM_MIN_POS.in(Units.Degrees)
+                + arm.inputs.positionRotations / Constants.ARM_GEAR_RATIO * 360;
+    }
+
+    private static double toArmRotations(double degrees) {
+        return (degrees - Constants.ARM_MIN_POS.in(Units.Degrees)) / 360 * Constants.ARM_GEAR_RATIO;
+    }
+
+    private static int cell(double heightInches) {
+        return Math.max(0, Math.min(minAngleDegrees.length - 1, (int) (heightInches / STEP_INCHES)));
+    }
+
+    private static boolean isSafe(int cell, double angleDegrees) {
+        return angleDegrees >= minAngleDegrees[cell] - ANGLE_TOLERANCE_DEGREES
+                && angleDegrees <= maxAngleDegrees[cell] + ANGLE_TOLERANCE_DEGREES;
+    }
+}
@@ -0,0 +1,53 @@
+package frc.robot.subsystems.io;
+
+import java.nio.ByteBuffer;
+
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+
+/**
+ * Sensor inputs of the arm, read once per cycle by ArmSubsystem.
+ */
+public interface ArmIO {
+    /**
+     * Arm sensor values for one cycle. Position is in motor rotations and
+     * velocity in RPM.
+     */
+    public static class Inputs implements InputLog.Inputs {
+        /** Struct schema of the logged inputs, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double positionRotations;double velocityRpm;double appliedOutput;"
+                + "bool limitSwitchPressed";
+
+        public double positionRotations;
+        public double velocityRpm;
+        /** Motor duty cycle [-1..1]. */
+        public double appliedOutput;
+
+        /** True while the limit switch is pressed. */
+        public boolean limitSwitchPressed;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(positionRotations);
+            BinaryLogger.putDouble(velocityRpm);
+            BinaryLogger.putDouble(appliedOutput);
+            BinaryLogger.putBoolean(limitSwitchPressed);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            positionRotations = record.getDouble();
+            velocityRpm = record.getDouble();
+            appliedOutput = record.getDouble();
+            limitSwitchPressed = record.get() != 0;
+        }
+    }
+
+    /**
+     * Reads every arm sensor into inputs.
+     *
+     * @param inputs Inputs to fill.
+     */
+    public default void updateInputs(Inputs inputs) {
+    }
+}
@@ -0,0 +1,33 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkMax;
+
+import edu.wpi.first.wpilibj.DigitalInput;
+
+/**
+ * ArmIO backed by the arm SparkMax encoder and limit switch.
+ */
+public class ArmIOSparkMax implements ArmIO {
+    private final SparkMax motor;
+    private final RelativeEncoder encoder;
+    private final DigitalInput limitSwitch;
+
+    /**
+     * @param motor       The arm motor.
+     * @param limitSwitch Arm limit switch (active low).
+     */
+    public ArmIOSparkMax(SparkMax motor, DigitalInput limitSwitch) {
+        this.motor = motor;
+        this.encoder = motor.getEncoder();
+        this.limitSwitch = limitSwitch;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.positionRotations = encoder.getPosition();
+        inputs.velocityRpm = encoder.getVelocity();
+        inputs.appliedOutput = motor.getAppliedOutput();
+        inputs.limitSwitchPressed = !limitSwitch.get();
+    }
+}
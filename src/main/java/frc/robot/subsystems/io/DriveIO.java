@@ -0,0 +1,108 @@
+package frc.robot.subsystems.io;
+
+import java.nio.ByteBuffer;
+
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+
+/**
+ * Sensor inputs of the drivetrain, read once per cycle by DriveSubsystem.
+ */
+public interface DriveIO {
+    /**
+     * Drivetrain sensor values for one cycle. Wheel positions are in rotations
+     * and velocities in RPM, as reported by the alternate encoders.
+     */
+    public static class Inputs implements InputLog.Inputs {
+        /** Struct schema of the logged inputs, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double flPositionRotations;double frPositionRotations;"
+                + "double blPositionRotations;double brPositionRotations;"
+                + "double flVelocityRpm;double frVelocityRpm;double blVelocityRpm;double brVelocityRpm;"
+                + "double flAppliedOutput;double frAppliedOutput;double blAppliedOutput;double brAppliedOutput;"
+                + "double yawDegrees;double yawRateDegreesPerSecond;double headingRadians;"
+                + "double displacementXMeters;double displacementYMeters";
+
+        public double flPositionRotations;
+        public double frPositionRotations;
+        public double blPositionRotations;
+        public double brPositionRotations;
+
+        public double flVelocityRpm;
+        public double frVelocityRpm;
+        public double blVelocityRpm;
+        public double brVelocityRpm;
+
+        /** Motor duty cycles [-1..1]. */
+        public double flAppliedOutput;
+        public double frAppliedOutput;
+        public double blAppliedOutput;
+        public double brAppliedOutput;
+
+        /** Gyro yaw in degrees [-180..180], clockwise positive. */
+        public double yawDegrees;
+        /** Gyro turn rate in degrees per second. */
+        public double yawRateDegreesPerSecond;
+        /** Gyro heading in radians, counterclockwise positive, with the angle adjustment applied. */
+        public double headingRadians;
+
+        /** navX displacement since the last reset, in meters. */
+        public double displacementXMeters;
+        public double displacementYMeters;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(flPositionRotations);
+            BinaryLogger.putDouble(frPositionRotations);
+            BinaryLogger.putDouble(blPositionRotations);
+            BinaryLogger.putDouble(brPositionRotations);
+            BinaryLogger.putDouble(flVelocityRpm);
+            BinaryLogger.putDouble(frVelocityRpm);
+            BinaryLogger.putDouble(blVelocityRpm);
+            BinaryLogger.putDouble(brVelocityRpm);
+            BinaryLogger.putDouble(flAppliedOutput);
+            BinaryLogger.putDouble(frAppliedOutput);
+            BinaryLogger.putDouble(blAppliedOutput);
+            BinaryLogger.putDouble(brAppliedOutput);
+            BinaryLogger.putDouble(yawDegrees);
+            BinaryLogger.putDouble(yawRateDegreesPerSecond);
+            BinaryLogger.putDouble(headingRadians);
+            BinaryLogger.putDouble(displacementXMeters);
+            BinaryLogger.putDouble(displacementYMeters);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            flPositionRotations = record.getDouble();
+            frPositionRotations = record.getDouble();
+            blPositionRotations = record.getDouble();
+            brPositionRotations = record.getDouble();
+            flVelocityRpm = record.getDouble();
+            frVelocityRpm = record.getDouble();
+            blVelocityRpm = record.getDouble();
+            brVelocityRpm = record.getDouble();
+            flAppliedOutput = record.getDouble();
+            frAppliedOutput = record.getDouble();
+            blAppliedOutput = record.getDouble();
+            brAppliedOutput = record.getDouble();
+            yawDegrees = record.getDouble();
+            yawRateDegreesPerSecond = record.getDouble();
+            headingRadians = record.getDouble();
+            displacementXMeters = record.getDouble();
+            displacementYMeters = record.getDouble();
+        }
+    }
+
+    /**
+     * Reads every drivetrain sensor into inputs.
+     *
+     * @param inputs Inputs to fill.
+     */
+    public default void updateInputs(Inputs inputs) {
+    }
+
+    /**
+     * Resets the navX displacement.
+     */
+    public default void resetDisplacement() {
+    }
+}
@@ -0,0 +1,43 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.spark.SparkMax;
+import com.studica.frc.AHRS;
+
+import frc.robot.util.MecanumDriveSim;
+
+/**
+ * DriveIO for simulation. Encoders and gyro are read like on the robot (their
+ * sim values are set by DriveSubsystem.simulationPeriodic()), but the navX
+ * doesn't simulate displacement, so it comes from the physics model instead.
+ */
+public class DriveIOSim extends DriveIOSparkMax {
+    private final MecanumDriveSim sim;
+    private double originXMeters;
+    private double originYMeters;
+
+    /**
+     * @param fl   Front left wheel motor, read through its alternate encoder.
+     * @param fr   Front right wheel motor.
+     * @param bl   Back left wheel motor.
+     * @param br   Back right wheel motor.
+     * @param gyro The robot's gyro.
+     * @param sim  Physics model of the drivetrain.
+     */
+    public DriveIOSim(SparkMax fl, SparkMax fr, SparkMax bl, SparkMax br, AHRS gyro, MecanumDriveSim sim) {
+        super(fl, fr, bl, br, gyro);
+        this.sim = sim;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        super.updateInputs(inputs);
+        inputs.displacementXMeters = sim.getXMeters() - originXMeters;
+        inputs.displacementYMeters = sim.getYMeters() - originYMeters;
+    }
+
+    @Override
+    public void resetDisplacement() {
+        originXMeters = sim.getXMeters();
+        originYMeters = sim.getYMeters();
+    }
+}
@@ -0,0 +1,69 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkMax;
+import com.studica.frc.AHRS;
+
+/**
+ * DriveIO backed by the SparkMax alternate encoders and the navX.
+ */
+public class DriveIOSparkMax implements DriveIO {
+    private final SparkMax flMotor;
+    private final SparkMax frMotor;
+    private final SparkMax blMotor;
+    private final SparkMax brMotor;
+    private final RelativeEncoder fl;
+    private final RelativeEncoder fr;
+    private final RelativeEncoder bl;
+    private final RelativeEncoder br;
+    private final AHRS gyro;
+
+    /**
+     * @param fl   Front left wheel motor, read through its alternate encoder.
+     * @param fr   Front right wheel motor.
+     * @param bl   Back left wheel motor.
+     * @param br   Back right wheel motor.
+     * @param gyro The robot's gyro.
+     */
+    public DriveIOSparkMax(SparkMax fl, SparkMax fr, SparkMax bl, SparkMax br, AHRS gyro) {
+        this.flMotor = fl;
+        this.frMotor = fr;
+        this.blMotor = bl;
+        this.brMotor = br;
+        this.fl = fl.getAlternateEncoder();
+        this.fr = fr.getAlternateEncoder();
+        this.bl = bl.getAlternateEncoder();
+        this.br = br.getAlternateEncoder();
+        this.gyro = gyro;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.flPositionRotations = fl.getPosition();
+        inputs.frPositionRotations = fr.getPosition();
+        inputs.blPositionRotations = bl.getPosition();
+        inputs.brPositionRotations = br.getPosition();
+
+        inputs.flVelocityRpm = fl.getVelocity();
+        inputs.frVelocityRpm = fr.getVelocity();
+        inputs.blVelocityRpm = bl.getVelocity();
+        inputs.brVelocityRpm = br.getVelocity();
+
+        inputs.flAppliedOutput = flMotor.getAppliedOutput();
+        inputs.frAppliedOutput = frMotor.getAppliedOutput();
+        inputs.blAppliedOutput = blMotor.getAppliedOutput();
+        inputs.brAppliedOutput = brMotor.getAppliedOutput();
+
+        inputs.yawDegrees = gyro.getYaw();
+        inputs.yawRateDegreesPerSecond = gyro.getRate();
+        inputs.headingRadians = gyro.getRotation2d().getRadians();
+
+        inputs.displacementXMeters = gyro.getDisplacementX();
+        inputs.displacementYMeters = gyro.getDisplacementY();
+    }
+
+    @Override
+    public void resetDisplacement() {
+        gyro.resetDisplacement();
+    }
+}
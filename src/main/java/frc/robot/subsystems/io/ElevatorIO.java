@@ -0,0 +1,60 @@
+package frc.robot.subsystems.io;
+
+import java.nio.ByteBuffer;
+
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+
+/**
+ * Sensor inputs of the elevator, read once per cycle by ElevatorSubsytem.
+ */
+public interface ElevatorIO {
+    /**
+     * Elevator sensor values for one cycle. Positions are in motor rotations and
+     * velocities in RPM.
+     */
+    public static class Inputs implements InputLog.Inputs {
+        /** Struct schema of the logged inputs, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double positionRotations;double velocityRpm;double appliedOutput;"
+                + "double minionPositionRotations;double minionVelocityRpm;bool atBottom";
+
+        public double positionRotations;
+        public double velocityRpm;
+        /** Primary motor duty cycle [-1..1]. */
+        public double appliedOutput;
+
+        public double minionPositionRotations;
+        public double minionVelocityRpm;
+
+        /** True while the hall effect sensor at the bottom of travel is triggered. */
+        public boolean atBottom;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(positionRotations);
+            BinaryLogger.putDouble(velocityRpm);
+            BinaryLogger.putDouble(appliedOutput);
+            BinaryLogger.putDouble(minionPositionRotations);
+            BinaryLogger.putDouble(minionVelocityRpm);
+            BinaryLogger.putBoolean(atBottom);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            positionRotations = record.getDouble();
+            velocityRpm = record.getDouble();
+            appliedOutput = record.getDouble();
+            minionPositionRotations = record.getDouble();
+            minionVelocityRpm = record.getDouble();
+            atBottom = record.get() != 0;
+        }
+    }
+
+    /**
+     * Reads every elevator sensor into inputs.
+     *
+     * @param inputs Inputs to fill.
+     */
+    public default void updateInputs(Inputs inputs) {
+    }
+}
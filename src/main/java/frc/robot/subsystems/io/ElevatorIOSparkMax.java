@@ -0,0 +1,40 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkMax;
+
+import edu.wpi.first.wpilibj.DigitalInput;
+
+/**
+ * ElevatorIO backed by the two elevator SparkMax encoders and the hall effect
+ * sensor.
+ */
+public class ElevatorIOSparkMax implements ElevatorIO {
+    private final SparkMax motor;
+    private final RelativeEncoder encoder;
+    private final RelativeEncoder minionEncoder;
+    private final DigitalInput limitSwitch;
+
+    /**
+     * @param motor       The primary elevator motor.
+     * @param minion      The secondary elevator motor.
+     * @param limitSwitch Hall effect sensor at the bottom of travel (active
+     *                    low).
+     */
+    public ElevatorIOSparkMax(SparkMax motor, SparkMax minion, DigitalInput limitSwitch) {
+        this.motor = motor;
+        this.encoder = motor.getEncoder();
+        this.minionEncoder = minion.getEncoder();
+        this.limitSwitch = limitSwitch;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.positionRotations = encoder.getPosition();
+        inputs.velocityRpm = encoder.getVelocity();
+        inputs.appliedOutput = motor.getAppliedOutput();
+        inputs.minionPositionRotations = minionEncoder.getPosition();
+        inputs.minionVelocityRpm = minionEncoder.getVelocity();
+        inputs.atBottom = !limitSwitch.get();
+    }
+}
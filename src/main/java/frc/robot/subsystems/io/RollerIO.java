@@ -0,0 +1,53 @@
+package frc.robot.subsystems.io;
+
+import java.nio.ByteBuffer;
+
+import frc.robot.util.BinaryLogger;
+import frc.robot.util.InputLog;
+
+/**
+ * Sensor inputs of the roller, read once per cycle by RollerSubsystem.
+ */
+public interface RollerIO {
+    /**
+     * Roller sensor values for one cycle. Position is in motor rotations and
+     * velocity in RPM.
+     */
+    public static class Inputs implements InputLog.Inputs {
+        /** Struct schema of the logged inputs, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double positionRotations;double velocityRpm;double appliedOutput;"
+                + "double laserRangeMm";
+
+        public double positionRotations;
+        public double velocityRpm;
+        /** Motor duty cycle [-1..1]. */
+        public double appliedOutput;
+
+        /** Distance measured by the time of flight sensor, in millimeters. */
+        public double laserRangeMm;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(positionRotations);
+            BinaryLogger.putDouble(velocityRpm);
+            BinaryLogger.putDouble(appliedOutput);
+            BinaryLogger.putDouble(laserRangeMm);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            positionRotations = record.getDouble();
+            velocityRpm = record.getDouble();
+            appliedOutput = record.getDouble();
+            laserRangeMm = record.getDouble();
+        }
+    }
+
+    /**
+     * Reads every roller sensor into inputs.
+     *
+     * @param inputs Inputs to fill.
+     */
+    public default void updateInputs(Inputs inputs) {
+    }
+}
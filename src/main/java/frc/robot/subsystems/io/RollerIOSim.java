@@ -0,0 +1,63 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkMax;
+
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants;
+
+/**
+ * RollerIO for simulation. The encoder is read like on the robot (its sim
+ * values are set by RollerSubsystem.simulationPeriodic()), and the time of
+ * flight sensor is replaced by a model of coral moving through the rollers.
+ * <p>
+ * Running the rollers inward (negative) pulls a coral in: after
+ * {@link #CORAL_SEEN_METERS} of roller travel it covers the sensor, and once
+ * it has moved its whole length past the sensor it is gone and the next one
+ * can be fed. Running outward backs it out again. The robot starts holding a
+ * coral, as in auto.
+ */
+public class RollerIOSim implements RollerIO {
+    /** Roller travel from first touching a coral until it covers the sensor. */
+    public static final double CORAL_SEEN_METERS = 0.03;
+    /** Length of a coral. */
+    public static final double CORAL_LENGTH_METERS = 0.30;
+
+    /** Range read with a coral in front of the sensor. */
+    public static final double CORAL_RANGE_MM = 40;
+    /** Range read with nothing in front of the sensor. */
+    public static final double EMPTY_RANGE_MM = 120;
+
+    private final SparkMax motor;
+    private final RelativeEncoder encoder;
+
+    private double coralTravelMeters = CORAL_SEEN_METERS + 0.05;
+    private double lastTimestamp = Double.NaN;
+
+    /**
+     * @param motor The roller motor.
+     */
+    public RollerIOSim(SparkMax motor) {
+        this.motor = motor;
+        this.encoder = motor.getEncoder();
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.positionRotations = encoder.getPosition();
+        inputs.velocityRpm = encoder.getVelocity();
+        inputs.appliedOutput = motor.getAppliedOutput();
+
+        double now = Timer.getFPGATimestamp();
+        if (!Double.isNaN(lastTimestamp)) {
+            double surfaceSpeed = inputs.velocityRpm / 60 * Math.PI * Constants.ROLLER_DIAMETER.in(Units.Meters);
+            coralTravelMeters = Math.max(0, coralTravelMeters - surfaceSpeed * (now - lastTimestamp));
+            if (coralTravelMeters > CORAL_SEEN_METERS + CORAL_LENGTH_METERS)
+                coralTravelMeters = 0;
+        }
+        lastTimestamp = now;
+
+        inputs.laserRangeMm = coralTravelMeters >= CORAL_SEEN_METERS ? CORAL_RANGE_MM : EMPTY_RANGE_MM;
+    }
+}
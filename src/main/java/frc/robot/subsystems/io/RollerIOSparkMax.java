@@ -0,0 +1,33 @@
+package frc.robot.subsystems.io;
+
+import com.playingwithfusion.TimeOfFlight;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkMax;
+
+/**
+ * RollerIO backed by the roller SparkMax encoder and the time of flight
+ * sensor.
+ */
+public class RollerIOSparkMax implements RollerIO {
+    private final SparkMax motor;
+    private final RelativeEncoder encoder;
+    private final TimeOfFlight laser;
+
+    /**
+     * @param motor The roller motor.
+     * @param laser Time of flight sensor that detects coral.
+     */
+    public RollerIOSparkMax(SparkMax motor, TimeOfFlight laser) {
+        this.motor = motor;
+        this.encoder = motor.getEncoder();
+        this.laser = laser;
+    }
+
+    @Override
+    public void updateInputs(Inputs inputs) {
+        inputs.positionRotations = encoder.getPosition();
+        inputs.velocityRpm = encoder.getVelocity();
+        inputs.appliedOutput = motor.getAppliedOutput();
+        inputs.laserRangeMm = laser.getRange();
+    }
+}
@@ -0,0 +1,199 @@
+package frc.robot.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.FollowPathCommand;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.util.FlippingUtil;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Auto chooser that gets the selected auto ready while the robot is disabled,
+ * so autonomousInit() only has to schedule it.
+ * <p>
+ * Options are registered as factories and only built once selected. Call
+ * {@link #periodic()} every disabled loop: when the selection changes the
+ * auto's command is built (on the main thread, since composing commands
+ * isn't thread safe) and cached. For PathPlanner autos a background thread
+ * also loads the auto's paths and generates their trajectories, which loads
+ * the files and warms up the trajectory code, and then the robot's pose is
+ * reset to the auto's starting pose. {@link #warmUp()} runs PathPlanner's
+ * own path following warm up once at startup.
+ */
+public class AutoPreparer {
+    private final SendableChooser<String> chooser = new SendableChooser<>();
+    private final Map<String, Supplier<Command>> factories = new HashMap<>();
+    private final Map<String, Command> commands = new HashMap<>();
+    private final Set<String> pathPlannerAutos = new HashSet<>();
+    private final Consumer<Pose2d> resetPose;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AutoPreparer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // Only touched by the background thread
+    private RobotConfig robotConfig;
+
+    private String preparedName;
+    private Future<Optional<Pose2d>> pathPreparation;
+    private boolean poseReset;
+    private Optional<Alliance> poseResetAlliance = Optional.empty();
+
+    /**
+     * @param resetPose Resets the robot's pose estimate to a field pose.
+     */
+    public AutoPreparer(Consumer<Pose2d> resetPose) {
+        this.resetPose = resetPose;
+    }
+
+    /**
+     * Schedules PathPlanner's path following warm up command, which runs in
+     * the background while disabled. Call once at startup, after AutoBuilder
+     * is configured. The pathfinder is warmed up by PathfindingPlanner.
+     */
+    public static void warmUp() {
+        FollowPathCommand.warmupCommand().schedule();
+    }
+
+    /**
+     * Adds every auto in the deploy directory's pathplanner/autos folder as an
+     * option. Adds none if AutoBuilder isn't configured, since they couldn't
+     * be built.
+     */
+    public void addPathPlannerAutos() {
+        if (!AutoBuilder.isConfigured())
+            return;
+        for (String name : AutoBuilder.getAllAutoNames()) {
+            addOption(name, () -> new PathPlannerAuto(name));
+            pathPlannerAutos.add(name);
+        }
+    }
+
+    /**
+     * @param name    Name shown in the chooser.
+     * @param factory Builds the auto's command.
+     */
+    public void addOption(String name, Supplier<Command> factory) {
+        factories.put(name, factory);
+        chooser.addOption(name, name);
+    }
+
+    /**
+     * @param name    Name shown in the chooser.
+     * @param factory Builds the auto's command.
+     */
+    public void setDefaultOption(String name, Supplier<Command> factory) {
+        factories.put(name, factory);
+        chooser.setDefaultOption(name, name);
+    }
+
+    /**
+     * @return The chooser to put on the dashboard.
+     */
+    public SendableChooser<String> getChooser() {
+        return chooser;
+    }
+
+    /**
+     * Prepares the selected auto if the selection changed. Call every loop
+     * while disabled.
+     */
+    public void periodic() {
+        String selected = chooser.getSelected();
+        if (selected == null)
+            return;
+
+        if (!selected.equals(preparedName)) {
+            preparedName = selected;
+            getCommand(selected);
+            pathPreparation = pathPlannerAutos.contains(selected) ? executor.submit(() -> preparePaths(selected))
+                    : null;
+            poseReset = false;
+        }
+
+        // The FMS may set the alliance after the auto was picked
+        if (!DriverStation.getAlliance().equals(poseResetAlliance))
+            poseReset = false;
+
+        // Replay waits for the paths so the pose is reset on the same cycle every
+        // run
+        if (!poseReset && pathPreparation != null && (pathPreparation.isDone() || InputLog.isReplay())) {
+            poseReset = true;
+            poseResetAlliance = DriverStation.getAlliance();
+            try {
+                pathPreparation.get().ifPresent(
+                        pose -> resetPose.accept(AutoBuilder.shouldFlip() ? FlippingUtil.flipFieldPose(pose) : pose));
+            } catch (InterruptedException | ExecutionException e) {
+                DriverStation.reportWarning("Failed to prepare auto " + selected + ": " + e.getCause(), false);
+            }
+        }
+    }
+
+    /**
+     * @return True once the selected auto is built and its paths are loaded.
+     */
+    public boolean isReady() {
+        String selected = chooser.getSelected();
+        return selected != null && selected.equals(preparedName) && commands.containsKey(selected)
+                && (pathPreparation == null || pathPreparation.isDone());
+    }
+
+    /**
+     * @return The selected auto's command. Built now if it wasn't prepared
+     *         while disabled.
+     */
+    public Command getSelected() {
+        String selected = chooser.getSelected();
+        return selected == null ? null : getCommand(selected);
+    }
+
+    private Command getCommand(String name) {
+        Supplier<Command> factory = factories.get(name);
+        if (factory == null)
+            return null;
+        return commands.computeIfAbsent(name, n -> factory.get());
+    }
+
+    /**
+     * Background thread. Loads a PathPlanner auto's paths and generates their
+     * trajectories.
+     *
+     * @return The auto's starting pose, if it has one.
+     */
+    private Optional<Pose2d> preparePaths(String name) throws Exception {
+        if (robotConfig == null)
+            robotConfig = RobotConfig.fromGUISettings();
+
+        List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(name);
+        for (PathPlannerPath path : paths) {
+            Rotation2d startRotation = path.getStartingHolonomicPose().map(Pose2d::getRotation)
+                    .orElse(Rotation2d.kZero);
+            path.generateTrajectory(new ChassisSpeeds(), startRotation, robotConfig);
+        }
+        return paths.isEmpty() ? Optional.empty() : paths.get(0).getStartingHolonomicPose();
+    }
+}
@@ -0,0 +1,271 @@
+package frc.robot.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Binary on-robot logging that never blocks or allocates on the main thread.
+ * <p>
+ * Records are written straight into fixed size slots of a preallocated direct
+ * ByteBuffer ring. A low priority thread copies finished slots into the WPILog
+ * opened by {@link DataLogManager} (USB stick if present, otherwise
+ * /home/lvuser/logs). If the writer falls behind, new records are dropped and
+ * counted instead of waiting.
+ * <p>
+ * Only the main robot thread may write records. A record is written with
+ * {@link #begin(Channel)}, any number of put calls, then {@link #end()}.
+ */
+public final class BinaryLogger {
+    /** Size of one ring slot, including its header. */
+    public static final int SLOT_BYTES = 256;
+
+    /** Number of ring slots (must be a power of two). */
+    public static final int SLOT_COUNT = 1024;
+
+    // Slot header: int entry, int payload length, long timestamp
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_PAYLOAD_BYTES = SLOT_BYTES - HEADER_BYTES;
+    private static final int MASK = SLOT_COUNT - 1;
+
+    /** How long the writer sleeps when the ring is empty. */
+    private static final long WRITER_IDLE_MILLIS = 20;
+
+    private static final ByteBuffer ring = ByteBuffer.allocateDirect(SLOT_COUNT * SLOT_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private static final AtomicLong head = new AtomicLong();
+    private static final AtomicLong tail = new AtomicLong();
+
+    // Main thread only
+    private static int slotOffset = -1;
+    private static int writePos = 0;
+
+    private static volatile long droppedCount = 0;
+
+    private static DataLog log;
+    private static Channel commandEvents;
+    private static Thread writer;
+
+    /**
+     * A named WPILog entry that records can be written to.
+     */
+    public static final class Channel {
+        private final int entry;
+
+        private Channel(int entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Starts the WPILog, the writer thread and command event logging. Call once
+     * at startup, before creating any channels.
+     */
+    public static void start() {
+        start("", "");
+    }
+
+    /**
+     * Starts logging to a specific file. Does nothing if logging already started.
+     *
+     * @param dir      Directory for the log, or "" for the default.
+     * @param filename Name of the log file, or "" for an automatic name.
+     */
+    public static synchronized void start(String dir, String filename) {
+        if (writer != null)
+            return;
+
+        DataLogManager.start(dir, filename);
+        log = DataLogManager.getLog();
+
+        commandEvents = channel("Commands/Events", "string");
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize(command -> commandEvent("Initialize: ", command));
+        scheduler.onCommandInterrupt(command -> commandEvent("Interrupt: ", command));
+        scheduler.onCommandFinish(command -> commandEvent("Finish: ", command));
+
+        writer = new Thread(BinaryLogger::drain, "BinaryLogger");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Creates a channel with a plain WPILog type such as "string" or "double[]".
+     *
+     * @param name Entry name in the log.
+     * @param type WPILog type string.
+     * @return The channel.
+     */
+    public static Channel channel(String name, String type) {
+        return new Channel(log.start(name, type));
+    }
+
+    /**
+     * Creates a channel for a struct type and registers its schema, so tools like
+     * AdvantageScope can decode the records.
+     *
+     * @param name       Entry name in the log.
+     * @param structName Name of the struct, e.g. "RobotState".
+     * @param schema     Struct schema, e.g. "double x;double y".
+     * @return The channel.
+     */
+    public static Channel structChannel(String name, String structName, String schema) {
+        log.addSchema("struct:" + structName, "structschema", schema);
+        return channel(name, "struct:" + structName);
+    }
+
+    /**
+     * Starts a record. Main thread only.
+     *
+     * @param channel Channel to write to.
+     * @return False if the ring is full (or logging hasn't started) and the
+     *         record will be dropped. The put calls and {@link #end()} are safe
+     *         to call either way.
+     */
+    public static boolean begin(Channel channel) {
+        long t = tail.get();
+        if (channel == null || t - head.get() >= SLOT_COUNT) {
+            droppedCount++;
+            slotOffset = -1;
+            return false;
+        }
+
+        slotOffset = (int) (t & MASK) * SLOT_BYTES;
+        ring.putInt(slotOffset, channel.entry);
+        ring.putLong(slotOffset + 8, RobotController.getFPGATime());
+        writePos = 0;
+        return true;
+    }
+
+    /**
+     * Appends a double to the current record.
+     *
+     * @param value Value to write.
+     */
+    public static void putDouble(double value) {
+        if (slotOffset < 0 || writePos + 8 > MAX_PAYLOAD_BYTES)
+            return;
+        ring.putDouble(slotOffset + HEADER_BYTES + writePos, value);
+        writePos += 8;
+    }
+
+    /**
+     * Appends an int to the current record.
+     *
+     * @param value Value to write.
+     */
+    public static void putInt(int value) {
+        if (slotOffset < 0 || writePos + 4 > MAX_PAYLOAD_BYTES)
+            return;
+        ring.putInt(slotOffset + HEADER_BYTES + writePos, value);
+        writePos += 4;
+    }
+
+    /**
+     * Appends a boolean to the current record as one byte.
+     *
+     * @param value Value to write.
+     */
+    public static void putBoolean(boolean value) {
+        if (slotOffset < 0 || writePos + 1 > MAX_PAYLOAD_BYTES)
+            return;
+        ring.put(slotOffset + HEADER_BYTES + writePos, (byte) (value ? 1 : 0));
+        writePos += 1;
+    }
+
+    /**
+     * Appends the characters of a string to the current record as ASCII,
+     * without allocating. Truncated if the slot is full.
+     *
+     * @param value String to write.
+     */
+    public static void putAscii(String value) {
+        if (slotOffset < 0)
+            return;
+        int length = Math.min(value.length(), MAX_PAYLOAD_BYTES - writePos);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            ring.put(slotOffset + HEADER_BYTES + writePos + i, (byte) (c < 128 ? c : '?'));
+        }
+        writePos += length;
+    }
+
+    /**
+     * Finishes the current record and hands it to the writer thread.
+     */
+    public static void end() {
+        if (slotOffset < 0)
+            return;
+        ring.putInt(slotOffset + 4, writePos);
+        slotOffset = -1;
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Blocks until the writer thread has copied every finished record into the
+     * log, then flushes the log to disk. Not for use on the robot loop.
+     */
+    public static void flush() {
+        if (writer == null)
+            return;
+        while (head.get() < tail.get()) {
+            try {
+                Thread.sleep(WRITER_IDLE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.flush();
+    }
+
+    /**
+     * @return Number of records dropped because the ring was full.
+     */
+    public static long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private static void commandEvent(String event, Command command) {
+        if (begin(commandEvents)) {
+            putAscii(event);
+            putAscii(command.getName());
+        }
+        end();
+    }
+
+    private static void drain() {
+        byte[] scratch = new byte[MAX_PAYLOAD_BYTES];
+        while (true) {
+            long h = head.get();
+            if (h >= tail.get()) {
+                try {
+                    Thread.sleep(WRITER_IDLE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+
+            int offset = (int) (h & MASK) * SLOT_BYTES;
+            int entry = ring.getInt(offset);
+            int length = ring.getInt(offset + 4);
+            long timestamp = ring.getLong(offset + 8);
+            ring.get(offset + HEADER_BYTES, scratch, 0, length);
+            log.appendRaw(entry, scratch, 0, length, timestamp);
+
+            // Released only after appending so flush() knows the record is in the log
+            head.lazySet(h + 1);
+        }
+    }
+
+    private BinaryLogger() {
+    }
+}
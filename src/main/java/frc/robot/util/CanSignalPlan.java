@@ -0,0 +1,151 @@
+package frc.robot.util;
+
+import com.revrobotics.spark.config.SignalsConfig;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Central plan for how often each SparkMax sends its status signals.
+ * <p>
+ * Signals the code reads every loop are sent at (or faster than) the loop
+ * rate, signals only used for logging or diagnostics are slowed down, and
+ * signals nothing reads are sent as rarely as possible. Every subsystem applies
+ * its role's config from here so the whole bus can be reviewed in one place.
+ * <p>
+ * {@link #updateCanStatus()} publishes bus utilization so the effect can be
+ * checked on the dashboard.
+ */
+public final class CanSignalPlan {
+    /** Signals read by the odometry thread. */
+    public static final int ODOMETRY_MS = 5;
+    /** Signals read every robot loop. */
+    public static final int LOOP_MS = 10;
+    /** Signals logged every loop but not used for control. */
+    public static final int LOGGED_MS = 20;
+    /** Signals only used for diagnostics. */
+    public static final int DIAGNOSTIC_MS = 250;
+    /** Signals nothing reads. */
+    public static final int UNUSED_MS = 1000;
+
+    /** How many calls of {@link #updateCanStatus()} between reads of the CAN status. */
+    public static final int STATUS_PERIOD_CYCLES = 25;
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("CAN");
+    private static final DoublePublisher utilizationPub = table.getDoubleTopic("utilizationPercent").publish();
+    private static final IntegerPublisher busOffPub = table.getIntegerTopic("busOffCount").publish();
+    private static final IntegerPublisher txFullPub = table.getIntegerTopic("txFullCount").publish();
+    private static final IntegerPublisher rxErrorPub = table.getIntegerTopic("receiveErrorCount").publish();
+    private static final IntegerPublisher txErrorPub = table.getIntegerTopic("transmitErrorCount").publish();
+
+    // Filled in place, RobotController.getCANStatus() allocates a new one
+    private static final CANStatus status = new CANStatus();
+
+    private static int cycles = 0;
+
+    /**
+     * Drive motors: alternate encoder position feeds 200 Hz odometry, alternate
+     * encoder velocity feeds chassis speeds every loop, applied output is
+     * logged. The built in encoder is never read.
+     *
+     * @return Signals for a drive SparkMax.
+     */
+    public static SignalsConfig drive() {
+        return unused()
+                .externalOrAltEncoderPosition(ODOMETRY_MS)
+                .externalOrAltEncoderVelocity(LOOP_MS)
+                .appliedOutputPeriodMs(LOGGED_MS)
+                .busVoltagePeriodMs(DIAGNOSTIC_MS)
+                .outputCurrentPeriodMs(DIAGNOSTIC_MS);
+    }
+
+    /**
+     * Elevator motors: position is read every loop for soft limits
+     * and run to setpoint, velocity is checked by isStill().
+     *
+     * @return Signals for an elevator SparkMax.
+     */
+    public static SignalsConfig elevator() {
+        return unused()
+                .primaryEncoderPositionPeriodMs(LOOP_MS)
+                .primaryEncoderVelocityPeriodMs(LOGGED_MS)
+                .appliedOutputPeriodMs(LOGGED_MS)
+                .outputCurrentPeriodMs(DIAGNOSTIC_MS);
+    }
+
+    /**
+     * Arm motor: position is read for soft limits and logging, velocity by
+     * isStill().
+     *
+     * @return Signals for the arm SparkMax.
+     */
+    public static SignalsConfig arm() {
+        return unused()
+                .primaryEncoderPositionPeriodMs(LOOP_MS)
+                .primaryEncoderVelocityPeriodMs(LOGGED_MS)
+                .appliedOutputPeriodMs(LOGGED_MS)
+                .outputCurrentPeriodMs(DIAGNOSTIC_MS);
+    }
+
+    /**
+     * Roller motor: only velocity (isStill) and applied output are read.
+     *
+     * @return Signals for the roller SparkMax.
+     */
+    public static SignalsConfig roller() {
+        return unused()
+                .primaryEncoderVelocityPeriodMs(LOGGED_MS)
+                .appliedOutputPeriodMs(LOGGED_MS)
+                .outputCurrentPeriodMs(DIAGNOSTIC_MS);
+    }
+
+    /**
+     * Base config with every signal slowed down, for roles to speed up what they
+     * use.
+     */
+    private static SignalsConfig unused() {
+        return new SignalsConfig()
+                .appliedOutputPeriodMs(UNUSED_MS)
+                .busVoltagePeriodMs(UNUSED_MS)
+                .outputCurrentPeriodMs(UNUSED_MS)
+                .motorTemperaturePeriodMs(DIAGNOSTIC_MS)
+                .faultsPeriodMs(DIAGNOSTIC_MS)
+                .warningsPeriodMs(DIAGNOSTIC_MS)
+                .limitsPeriodMs(UNUSED_MS)
+                .primaryEncoderPositionPeriodMs(UNUSED_MS)
+                .primaryEncoderVelocityPeriodMs(UNUSED_MS)
+                .externalOrAltEncoderPosition(UNUSED_MS)
+                .externalOrAltEncoderVelocity(UNUSED_MS)
+                .analogPositionPeriodMs(UNUSED_MS)
+                .analogVelocityPeriodMs(UNUSED_MS)
+                .analogVoltagePeriodMs(UNUSED_MS)
+                .absoluteEncoderPositionPeriodMs(UNUSED_MS)
+                .absoluteEncoderVelocityPeriodMs(UNUSED_MS)
+                .iAccumulationPeriodMs(UNUSED_MS);
+    }
+
+    /**
+     * Publishes CAN bus utilization and error counters under the "CAN" table.
+     * Call once per loop; the bus is only queried every
+     * {@link #STATUS_PERIOD_CYCLES} calls.
+     */
+    public static void updateCanStatus() {
+        if (++cycles < STATUS_PERIOD_CYCLES)
+            return;
+        cycles = 0;
+
+        CANJNI.getCANStatus(status);
+        utilizationPub.set(status.percentBusUtilization * 100);
+        busOffPub.set(status.busOffCount);
+        txFullPub.set(status.txFullCount);
+        rxErrorPub.set(status.receiveErrorCount);
+        txErrorPub.set(status.transmitErrorCount);
+    }
+
+    private CanSignalPlan() {
+    }
+}
@@ -0,0 +1,81 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.units.Units;
+import frc.robot.Constants;
+
+/**
+ * Mecanum kinematics on primitive doubles for code that runs every loop.
+ * <p>
+ * Gives the same results as MecanumDriveKinematics for a rectangular wheel
+ * layout, but writes into holders the caller keeps and reuses instead of
+ * creating new objects, and uses conversion factors computed once instead of
+ * Units measures. Wheels are in kinematics order (front left, front right,
+ * back left, back right).
+ */
+public class DriveKinematics {
+    /** Distance a wheel rolls per wheel motor rotation. */
+    public static final double METERS_PER_ROTATION = Math.PI * Constants.WHEEL_DIAMETER.in(Units.Meters);
+
+    /** Wheel surface speed per wheel motor RPM. */
+    public static final double METERS_PER_SECOND_PER_RPM = METERS_PER_ROTATION / 60;
+
+    // Sum of the wheel offsets, the lever arm of each wheel's turning component
+    private final double turnRadiusMeters;
+
+    /**
+     * @param wheelOffsetX Distance of each wheel from the center of the robot
+     *                     along X, in meters.
+     * @param wheelOffsetY Distance of each wheel from the center of the robot
+     *                     along Y, in meters.
+     */
+    public DriveKinematics(double wheelOffsetX, double wheelOffsetY) {
+        this.turnRadiusMeters = wheelOffsetX + wheelOffsetY;
+    }
+
+    /**
+     * Forward kinematics.
+     *
+     * @param flRpm Front left wheel velocity in RPM.
+     * @param frRpm Front right wheel velocity in RPM.
+     * @param blRpm Back left wheel velocity in RPM.
+     * @param brRpm Back right wheel velocity in RPM.
+     * @param out   Receives the robot relative chassis speed.
+     */
+    public void toChassisSpeeds(double flRpm, double frRpm, double blRpm, double brRpm, ChassisSpeeds out) {
+        double fl = flRpm * METERS_PER_SECOND_PER_RPM;
+        double fr = frRpm * METERS_PER_SECOND_PER_RPM;
+        double bl = blRpm * METERS_PER_SECOND_PER_RPM;
+        double br = brRpm * METERS_PER_SECOND_PER_RPM;
+
+        out.vxMetersPerSecond = (fl + fr + bl + br) / 4;
+        out.vyMetersPerSecond = (-fl + fr + bl - br) / 4;
+        out.omegaRadiansPerSecond = (-fl + fr - bl + br) / (4 * turnRadiusMeters);
+    }
+
+    /**
+     * Inverse kinematics.
+     *
+     * @param speeds Robot relative chassis speed.
+     * @param out    Receives the wheel speeds in meters per second.
+     */
+    public void toWheelSpeeds(ChassisSpeeds speeds, MecanumDriveWheelSpeeds out) {
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        double turn = speeds.omegaRadiansPerSecond * turnRadiusMeters;
+
+        out.frontLeftMetersPerSecond = vx - vy - turn;
+        out.frontRightMetersPerSecond = vx + vy + turn;
+        out.rearLeftMetersPerSecond = vx + vy - turn;
+        out.rearRightMetersPerSecond = vx - vy + turn;
+    }
+
+    /**
+     * @param metersPerSecond Wheel surface speed.
+     * @return Wheel motor RPM.
+     */
+    public static double toRpm(double metersPerSecond) {
+        return metersPerSecond / METERS_PER_SECOND_PER_RPM;
+    }
+}
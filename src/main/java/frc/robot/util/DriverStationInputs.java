@@ -0,0 +1,202 @@
+package frc.robot.util;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Driver station state and joysticks for one cycle, logged so replay drives
+ * the robot code through the same modes and button presses as the match.
+ * <p>
+ * On the robot call {@link #update()} once per cycle after the driver station
+ * data has been refreshed. In replay call {@link #replay()} before each robot
+ * loop to push the recorded values into the simulated driver station.
+ */
+public class DriverStationInputs implements InputLog.Inputs {
+    /** Struct schema of the logged state, in {@link #toLog()} order. */
+    public static final String SCHEMA = "bool enabled;bool autonomous;bool test;bool eStop;"
+            + "bool fmsAttached;bool dsAttached;int32 allianceStation;double matchTime";
+
+    /** Joystick ports that are logged. */
+    public static final int JOYSTICK_COUNT = 4;
+
+    public boolean enabled;
+    public boolean autonomous;
+    public boolean test;
+    public boolean eStop;
+    public boolean fmsAttached;
+    public boolean dsAttached;
+    /** Ordinal of the {@link AllianceStationID}. */
+    public int allianceStation;
+    public double matchTime;
+
+    public final JoystickInputs[] joysticks = new JoystickInputs[JOYSTICK_COUNT];
+
+    private final InputLog.Entry entry;
+    private final InputLog.Entry[] joystickEntries = new InputLog.Entry[JOYSTICK_COUNT];
+
+    /**
+     * One joystick's axes, buttons and POVs.
+     */
+    public static class JoystickInputs implements InputLog.Inputs {
+        /** Axes that are logged; the HAL supports up to 12. */
+        public static final int MAX_AXES = 12;
+
+        /** POVs that are logged. */
+        public static final int MAX_POVS = 4;
+
+        /** Struct schema of a logged joystick, in {@link #toLog()} order. */
+        public static final String SCHEMA = "int32 axisCount;double axes[" + MAX_AXES + "];int32 buttonCount;"
+                + "int32 buttons;int32 povCount;int32 povs[" + MAX_POVS + "]";
+
+        private final int port;
+
+        public int axisCount;
+        public final double[] axes = new double[MAX_AXES];
+        public int buttonCount;
+        /** Button states as a bit field, button 1 in bit 0. */
+        public int buttons;
+        public int povCount;
+        public final int[] povs = new int[MAX_POVS];
+
+        private JoystickInputs(int port) {
+            this.port = port;
+        }
+
+        private void update() {
+            axisCount = Math.min(DriverStation.getStickAxisCount(port), MAX_AXES);
+            for (int i = 0; i < axisCount; i++) {
+                axes[i] = DriverStation.getStickAxis(port, i);
+            }
+            buttonCount = DriverStation.getStickButtonCount(port);
+            buttons = DriverStation.getStickButtons(port);
+            povCount = Math.min(DriverStation.getStickPOVCount(port), MAX_POVS);
+            for (int i = 0; i < povCount; i++) {
+                povs[i] = DriverStation.getStickPOV(port, i);
+            }
+        }
+
+        private void apply() {
+            DriverStationSim.setJoystickAxisCount(port, axisCount);
+            for (int i = 0; i < axisCount; i++) {
+                DriverStationSim.setJoystickAxis(port, i, axes[i]);
+            }
+            DriverStationSim.setJoystickButtonCount(port, buttonCount);
+            DriverStationSim.setJoystickButtons(port, buttons);
+            DriverStationSim.setJoystickPOVCount(port, povCount);
+            for (int i = 0; i < povCount; i++) {
+                DriverStationSim.setJoystickPOV(port, i, povs[i]);
+            }
+        }
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putInt(axisCount);
+            for (double axis : axes) {
+                BinaryLogger.putDouble(axis);
+            }
+            BinaryLogger.putInt(buttonCount);
+            BinaryLogger.putInt(buttons);
+            BinaryLogger.putInt(povCount);
+            for (int pov : povs) {
+                BinaryLogger.putInt(pov);
+            }
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            axisCount = record.getInt();
+            for (int i = 0; i < axes.length; i++) {
+                axes[i] = record.getDouble();
+            }
+            buttonCount = record.getInt();
+            buttons = record.getInt();
+            povCount = record.getInt();
+            for (int i = 0; i < povs.length; i++) {
+                povs[i] = record.getInt();
+            }
+        }
+    }
+
+    /**
+     * Creates the driver station inputs and their log entries. Call after
+     * {@link BinaryLogger#start()}.
+     */
+    public DriverStationInputs() {
+        entry = InputLog.entry("DriverStation", "DriverStationInputs", SCHEMA);
+        for (int i = 0; i < JOYSTICK_COUNT; i++) {
+            joysticks[i] = new JoystickInputs(i);
+            joystickEntries[i] = InputLog.entry("Joystick" + i, "JoystickInputs", JoystickInputs.SCHEMA);
+        }
+    }
+
+    /**
+     * Reads the driver station and logs it. In replay this reads back the
+     * simulated values set by {@link #replay()}, so they are logged again.
+     */
+    public void update() {
+        enabled = DriverStation.isEnabled();
+        autonomous = DriverStation.isAutonomous();
+        test = DriverStation.isTest();
+        eStop = DriverStation.isEStopped();
+        fmsAttached = DriverStation.isFMSAttached();
+        dsAttached = DriverStation.isDSAttached();
+        allianceStation = DriverStation.getRawAllianceStation().ordinal();
+        matchTime = DriverStation.getMatchTime();
+        entry.record(this);
+
+        for (int i = 0; i < JOYSTICK_COUNT; i++) {
+            joysticks[i].update();
+            joystickEntries[i].record(joysticks[i]);
+        }
+    }
+
+    /**
+     * Replay mode only. Pushes this cycle's recorded driver station state into
+     * the simulated driver station.
+     */
+    public void replay() {
+        if (entry.replay(this)) {
+            DriverStationSim.setEnabled(enabled);
+            DriverStationSim.setAutonomous(autonomous);
+            DriverStationSim.setTest(test);
+            DriverStationSim.setEStop(eStop);
+            DriverStationSim.setFmsAttached(fmsAttached);
+            DriverStationSim.setDsAttached(dsAttached);
+            DriverStationSim.setAllianceStationId(AllianceStationID.values()[allianceStation]);
+            DriverStationSim.setMatchTime(matchTime);
+        }
+
+        for (int i = 0; i < JOYSTICK_COUNT; i++) {
+            if (joystickEntries[i].replay(joysticks[i]))
+                joysticks[i].apply();
+        }
+        DriverStationSim.notifyNewData();
+    }
+
+    @Override
+    public void toLog() {
+        BinaryLogger.putBoolean(enabled);
+        BinaryLogger.putBoolean(autonomous);
+        BinaryLogger.putBoolean(test);
+        BinaryLogger.putBoolean(eStop);
+        BinaryLogger.putBoolean(fmsAttached);
+        BinaryLogger.putBoolean(dsAttached);
+        BinaryLogger.putInt(allianceStation);
+        BinaryLogger.putDouble(matchTime);
+    }
+
+    @Override
+    public void fromLog(ByteBuffer record) {
+        enabled = record.get() != 0;
+        autonomous = record.get() != 0;
+        test = record.get() != 0;
+        eStop = record.get() != 0;
+        fmsAttached = record.get() != 0;
+        dsAttached = record.get() != 0;
+        allianceStation = record.getInt();
+        matchTime = record.getDouble();
+    }
+}
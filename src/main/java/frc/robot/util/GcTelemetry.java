@@ -0,0 +1,168 @@
+package frc.robot.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Measures how much the main thread allocates and how much time the garbage
+ * collector takes, every robot loop, so loop overruns can be matched to GC
+ * pauses and allocation changes can be checked on the robot.
+ * <p>
+ * {@link #update()} reads the bytes the main thread allocated, the number of
+ * collections and their total time, and the heap in use, all since the last
+ * call. Each loop is written to the match log as a GcSample record, and every
+ * {@link #PUBLISH_PERIOD_CYCLES} loops totals are published under the "GC"
+ * NetworkTables table: how many overruns happened in a loop with a collection,
+ * and the longest single pause (reported by GC notifications on the JVM's own
+ * thread). Reading the counters doesn't allocate.
+ */
+public final class GcTelemetry {
+    /** How many loops between NetworkTables publishes. */
+    public static final int PUBLISH_PERIOD_CYCLES = LoopProfiler.PUBLISH_PERIOD_CYCLES;
+
+    private static final String SCHEMA = "double allocatedBytes;int32 collections;double gcMs;double heapUsedMb;"
+            + "double loopMs;bool overran";
+
+    private static final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final Runtime runtime = Runtime.getRuntime();
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("GC");
+    private static final DoublePublisher allocatedPub = table.getDoubleTopic("allocatedKbPerCycle").publish();
+    private static final DoublePublisher maxAllocatedPub = table.getDoubleTopic("maxAllocatedKbPerCycle").publish();
+    private static final IntegerPublisher collectionsPub = table.getIntegerTopic("collections").publish();
+    private static final DoublePublisher gcTimePub = table.getDoubleTopic("totalGcMs").publish();
+    private static final DoublePublisher maxPausePub = table.getDoubleTopic("maxPauseMs").publish();
+    private static final DoublePublisher heapUsedPub = table.getDoubleTopic("heapUsedMb").publish();
+    private static final IntegerPublisher overrunsPub = table.getIntegerTopic("overruns").publish();
+    private static final IntegerPublisher overrunsWithGcPub = table.getIntegerTopic("overrunsWithGc").publish();
+
+    private static final BinaryLogger.Channel logChannel = BinaryLogger.structChannel("GcTelemetry", "GcSample",
+            SCHEMA);
+
+    // Longest single collection, written by the notification thread
+    private static final AtomicLong maxPauseMs = new AtomicLong();
+
+    private static boolean started;
+    private static long lastAllocatedBytes;
+    private static long lastCollections;
+    private static long lastGcMs;
+
+    private static long cycles;
+    private static long windowAllocatedBytes;
+    private static long windowMaxAllocatedBytes;
+    private static long overruns;
+    private static long overrunsWithGc;
+
+    private GcTelemetry() {
+    }
+
+    /**
+     * Starts measuring. Call once from the main thread before the first
+     * {@link #update()}.
+     */
+    public static void start() {
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            if (bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> {
+                    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                            .equals(notification.getType()))
+                        return;
+                    long duration = GarbageCollectionNotificationInfo
+                            .from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+                    maxPauseMs.accumulateAndGet(duration, Math::max);
+                }, null, null);
+            }
+        }
+
+        lastAllocatedBytes = threadBean.getCurrentThreadAllocatedBytes();
+        lastCollections = totalCollections();
+        lastGcMs = totalGcMs();
+        started = true;
+    }
+
+    /**
+     * Records the loop that just finished. Call once per loop from the main
+     * thread, right after {@link LoopProfiler#startCycle()}, so the
+     * allocations and collections counted line up with the timed loop,
+     * including this call.
+     */
+    public static void update() {
+        if (!started)
+            return;
+
+        long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes();
+        long collections = totalCollections();
+        long gcMs = totalGcMs();
+
+        long allocated = allocatedBytes - lastAllocatedBytes;
+        long newCollections = collections - lastCollections;
+        long newGcMs = gcMs - lastGcMs;
+        lastAllocatedBytes = allocatedBytes;
+        lastCollections = collections;
+        lastGcMs = gcMs;
+
+        double heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / 1e6;
+        boolean overran = LoopProfiler.lastCycleOverran();
+        if (overran) {
+            overruns++;
+            if (newCollections > 0)
+                overrunsWithGc++;
+        }
+
+        if (BinaryLogger.begin(logChannel)) {
+            BinaryLogger.putDouble(allocated);
+            BinaryLogger.putInt((int) newCollections);
+            BinaryLogger.putDouble(newGcMs);
+            BinaryLogger.putDouble(heapUsedMb);
+            BinaryLogger.putDouble(LoopProfiler.getLastCycleNanos() / 1e6);
+            BinaryLogger.putBoolean(overran);
+        }
+        BinaryLogger.end();
+
+        windowAllocatedBytes += allocated;
+        windowMaxAllocatedBytes = Math.max(windowMaxAllocatedBytes, allocated);
+        if (++cycles % PUBLISH_PERIOD_CYCLES == 0) {
+            allocatedPub.set(windowAllocatedBytes / 1e3 / PUBLISH_PERIOD_CYCLES);
+            maxAllocatedPub.set(windowMaxAllocatedBytes / 1e3);
+            collectionsPub.set(collections);
+            gcTimePub.set(gcMs);
+            maxPausePub.set(maxPauseMs.get());
+            heapUsedPub.set(heapUsedMb);
+            overrunsPub.set(overruns);
+            overrunsWithGcPub.set(overrunsWithGc);
+            windowAllocatedBytes = 0;
+            windowMaxAllocatedBytes = 0;
+        }
+    }
+
+    private static long totalCollections() {
+        long total = 0;
+        for (int i = 0; i < gcBeans.size(); i++) {
+            total += Math.max(0, gcBeans.get(i).getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long totalGcMs() {
+        long total = 0;
+        for (int i = 0; i < gcBeans.size(); i++) {
+            total += Math.max(0, gcBeans.get(i).getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,266 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Records every sensor input the robot code reads, once per cycle, so a match
+ * can be replayed offline.
+ * <p>
+ * On the robot each subsystem writes its inputs object to an "Inputs/..."
+ * entry through {@link BinaryLogger}, and {@link #startCycle()} marks where
+ * each robot loop begins. In replay mode (see frc.robot.ReplayMain) the
+ * recorded log is read one cycle at a time with {@link #nextCycle()}, and
+ * {@link Entry#process(Inputs)} overwrites the inputs with the recorded values
+ * instead of the hardware's. Inputs are written again in replay, so the new
+ * log can be replayed or diffed just like the original.
+ */
+public final class InputLog {
+    /** Prefix of every input entry in the log. */
+    public static final String PREFIX = "Inputs/";
+
+    private static final String CYCLE_ENTRY = PREFIX + "Cycle";
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static BinaryLogger.Channel cycleChannel;
+
+    private static boolean replaying = false;
+    private static Iterator<DataLogRecord> records;
+    private static final Map<Integer, Entry> replayEntries = new HashMap<>();
+    private static int replayCycleEntry = -1;
+    private static double cycleTimestamp = Double.NaN;
+    private static double nextCycleTimestamp = Double.NaN;
+
+    /**
+     * An inputs object that can be written to and read back from the log.
+     * Fields must be read in the same order they were written.
+     */
+    public interface Inputs {
+        /**
+         * Writes every field with the BinaryLogger put methods.
+         */
+        void toLog();
+
+        /**
+         * Reads every field back from a recorded record.
+         *
+         * @param record Little endian record written by {@link #toLog()}.
+         */
+        void fromLog(ByteBuffer record);
+    }
+
+    /**
+     * One named input entry. Create during construction and keep it; a cycle
+     * may hold any number of records per entry.
+     */
+    public static final class Entry {
+        private final BinaryLogger.Channel channel;
+        private final ArrayList<byte[]> replayRecords = new ArrayList<>();
+        private int replayIndex = 0;
+
+        private Entry(BinaryLogger.Channel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Writes inputs to the log.
+         *
+         * @param inputs Inputs to write.
+         */
+        public void record(Inputs inputs) {
+            if (BinaryLogger.begin(channel))
+                inputs.toLog();
+            BinaryLogger.end();
+        }
+
+        /**
+         * Writes a string to the log. Only for entries made with
+         * {@link InputLog#stringEntry(String)}.
+         *
+         * @param value String to write.
+         */
+        public void record(String value) {
+            if (BinaryLogger.begin(channel))
+                BinaryLogger.putAscii(value);
+            BinaryLogger.end();
+        }
+
+        /**
+         * Replay mode only. Reads the next record of this entry in the current
+         * cycle into inputs.
+         *
+         * @param inputs Inputs to fill.
+         * @return False if this cycle has no more records for the entry, in
+         *         which case inputs is left unchanged.
+         */
+        public boolean replay(Inputs inputs) {
+            if (replayIndex >= replayRecords.size())
+                return false;
+            inputs.fromLog(ByteBuffer.wrap(replayRecords.get(replayIndex++)).order(ByteOrder.LITTLE_ENDIAN));
+            return true;
+        }
+
+        /**
+         * Replay mode only. Reads the next string record of this entry in the
+         * current cycle.
+         *
+         * @return The string, or null if this cycle has no more records.
+         */
+        public String replayString() {
+            if (replayIndex >= replayRecords.size())
+                return null;
+            return new String(replayRecords.get(replayIndex++), StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Call right after reading the hardware into inputs. On the robot this
+         * logs them; in replay it first replaces them with the next recorded
+         * value.
+         *
+         * @param inputs Inputs read this cycle.
+         * @return False in replay mode if this cycle has no more records for
+         *         the entry (nothing is logged then). Always true on the robot.
+         */
+        public boolean process(Inputs inputs) {
+            if (replaying && !replay(inputs))
+                return false;
+            record(inputs);
+            return true;
+        }
+    }
+
+    /**
+     * Creates an input entry for a struct type. Call after
+     * {@link BinaryLogger#start()}.
+     *
+     * @param name       Entry name, logged under {@link #PREFIX}.
+     * @param structName Name of the struct, e.g. "DriveInputs".
+     * @param schema     Struct schema matching {@link Inputs#toLog()}.
+     * @return The entry.
+     */
+    public static Entry entry(String name, String structName, String schema) {
+        Entry entry = new Entry(BinaryLogger.structChannel(PREFIX + name, structName, schema));
+        entries.put(PREFIX + name, entry);
+        return entry;
+    }
+
+    /**
+     * Creates an input entry holding strings.
+     *
+     * @param name Entry name, logged under {@link #PREFIX}.
+     * @return The entry.
+     */
+    public static Entry stringEntry(String name) {
+        Entry entry = new Entry(BinaryLogger.channel(PREFIX + name, "string"));
+        entries.put(PREFIX + name, entry);
+        return entry;
+    }
+
+    /**
+     * Marks the start of a robot loop. Call before anything reads inputs.
+     */
+    public static void startCycle() {
+        if (cycleChannel == null)
+            cycleChannel = BinaryLogger.channel(CYCLE_ENTRY, "double");
+        if (BinaryLogger.begin(cycleChannel))
+            BinaryLogger.putDouble(replaying ? cycleTimestamp : Timer.getFPGATimestamp());
+        BinaryLogger.end();
+    }
+
+    /**
+     * Switches to replay mode. Call before the subsystems are created so they
+     * skip their hardware.
+     *
+     * @param path Path of the log to replay.
+     * @throws IOException If the log can't be opened.
+     */
+    public static void startReplay(String path) throws IOException {
+        DataLogReader reader = new DataLogReader(path);
+        if (!reader.isValid())
+            throw new IOException(path + " is not a WPILog");
+        records = reader.iterator();
+        replaying = true;
+    }
+
+    /**
+     * @return True if inputs come from a recorded log instead of the hardware.
+     */
+    public static boolean isReplay() {
+        return replaying;
+    }
+
+    /**
+     * Replay mode only. Loads the next recorded cycle's inputs.
+     *
+     * @return False when the log has no more cycles.
+     */
+    public static boolean nextCycle() {
+        for (Entry entry : entries.values()) {
+            entry.replayRecords.clear();
+            entry.replayIndex = 0;
+        }
+
+        // The first call skips whatever was logged before the first loop
+        if (Double.isNaN(nextCycleTimestamp) && !readCycle(false))
+            return false;
+
+        cycleTimestamp = nextCycleTimestamp;
+        nextCycleTimestamp = Double.NaN;
+        readCycle(true);
+        return true;
+    }
+
+    /**
+     * @return FPGA time in seconds at which the current replayed cycle started
+     *         on the robot.
+     */
+    public static double getCycleTimestamp() {
+        return cycleTimestamp;
+    }
+
+    /**
+     * Reads records up to and including the next cycle marker.
+     *
+     * @param collect Whether to keep the input records read on the way.
+     * @return False if the log ended first.
+     */
+    private static boolean readCycle(boolean collect) {
+        while (records.hasNext()) {
+            DataLogRecord record = records.next();
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                if (start.name.equals(CYCLE_ENTRY))
+                    replayCycleEntry = start.entry;
+                else if (entries.containsKey(start.name))
+                    replayEntries.put(start.entry, entries.get(start.name));
+                continue;
+            }
+            if (record.isControl())
+                continue;
+
+            if (record.getEntry() == replayCycleEntry) {
+                nextCycleTimestamp = record.getDouble();
+                return true;
+            }
+            if (collect) {
+                Entry entry = replayEntries.get(record.getEntry());
+                if (entry != null)
+                    entry.replayRecords.add(record.getRaw());
+            }
+        }
+        return false;
+    }
+
+    private InputLog() {
+    }
+}
@@ -0,0 +1,151 @@
+package frc.robot.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+
+/**
+ * Snapshot of a Limelight's targeting data, taken once per scheduler cycle.
+ * <p>
+ * The targeting values (tv, tid, tx, ty, ta and the latency) come from the
+ * single "t2d" array, which the Limelight publishes atomically, so they always
+ * belong to the same camera frame. {@link #botPoseTargetSpace} is a separate
+ * topic read right after it, and may be from the frame before or after.
+ * Commands should read from the snapshot held by CameraSubsystem instead of
+ * calling the individual LimelightHelpers getters.
+ */
+public class LimelightFrame implements InputLog.Inputs {
+    /** Struct schema of a logged frame, in {@link #toLog()} order. */
+    public static final String SCHEMA = "double timestampSeconds;double latencyMs;bool hasTarget;int32 tagId;"
+            + "double tx;double ty;double ta;double botPoseTargetSpace[6];bool isNew";
+
+    // Indices into the t2d array
+    private static final int T2D_VALID = 0;
+    private static final int T2D_TARGET_LATENCY = 2;
+    private static final int T2D_CAPTURE_LATENCY = 3;
+    private static final int T2D_TX = 4;
+    private static final int T2D_TY = 5;
+    private static final int T2D_TA = 8;
+    private static final int T2D_TID = 9;
+    private static final int T2D_LENGTH = 10;
+
+    private final String limelightName;
+    private final DoubleArraySubscriber t2dEntry;
+    private final DoubleArraySubscriber targetSpaceEntry;
+    private long lastChange = -1;
+
+    /** Time the frame was captured, in FPGA seconds. */
+    public double timestampSeconds;
+    /** Total latency (pipeline + capture) in milliseconds. */
+    public double latencyMs;
+    /** True if the camera sees a target. */
+    public boolean hasTarget;
+    /** ID of the primary AprilTag, or -1 if there is none. */
+    public int tagId = -1;
+    public double tx;
+    public double ty;
+    public double ta;
+    /**
+     * Robot pose in the primary target's coordinate space, as [x, y, z, roll,
+     * pitch, yaw]. Zero filled when there is no target. Not read atomically
+     * with the rest of the frame, see the class comment.
+     */
+    public final double[] botPoseTargetSpace = new double[6];
+    /** True if this snapshot holds a frame that arrived since the last update. */
+    public boolean isNew;
+
+    /**
+     * Creates a snapshot for the given Limelight. Call {@link #update()} once
+     * per cycle to refresh it.
+     *
+     * @param limelightName Name of the Limelight camera.
+     */
+    public LimelightFrame(String limelightName) {
+        this.limelightName = limelightName;
+        this.t2dEntry = LimelightHelpers.getLimelightDoubleArraySubscriber(limelightName, "t2d");
+        this.targetSpaceEntry = LimelightHelpers.getLimelightDoubleArraySubscriber(limelightName, "botpose_targetspace");
+    }
+
+    /**
+     * Reads the latest frame. Does nothing if the camera hasn't published since
+     * the last call.
+     */
+    public void update() {
+        long change = t2dEntry.getLastChange();
+        isNew = change != lastChange;
+        if (!isNew)
+            return;
+        lastChange = change;
+
+        TimestampedDoubleArray t2d = t2dEntry.getAtomic();
+        double[] values = t2d.value;
+        if (values.length < T2D_LENGTH) {
+            hasTarget = false;
+            tagId = -1;
+            tx = ty = ta = 0;
+            latencyMs = 0;
+            timestampSeconds = t2d.timestamp / 1e6;
+            Arrays.fill(botPoseTargetSpace, 0);
+            return;
+        }
+
+        latencyMs = values[T2D_TARGET_LATENCY] + values[T2D_CAPTURE_LATENCY];
+        timestampSeconds = t2d.timestamp / 1e6 - latencyMs / 1e3;
+        hasTarget = values[T2D_VALID] == 1.0;
+        tx = values[T2D_TX];
+        ty = values[T2D_TY];
+        ta = values[T2D_TA];
+        tagId = hasTarget ? (int) values[T2D_TID] : -1;
+
+        double[] pose = targetSpaceEntry.get();
+        for (int i = 0; i < botPoseTargetSpace.length; i++) {
+            botPoseTargetSpace[i] = i < pose.length ? pose[i] : 0;
+        }
+    }
+
+    @Override
+    public void toLog() {
+        BinaryLogger.putDouble(timestampSeconds);
+        BinaryLogger.putDouble(latencyMs);
+        BinaryLogger.putBoolean(hasTarget);
+        BinaryLogger.putInt(tagId);
+        BinaryLogger.putDouble(tx);
+        BinaryLogger.putDouble(ty);
+        BinaryLogger.putDouble(ta);
+        for (double value : botPoseTargetSpace) {
+            BinaryLogger.putDouble(value);
+        }
+        BinaryLogger.putBoolean(isNew);
+    }
+
+    @Override
+    public void fromLog(ByteBuffer record) {
+        timestampSeconds = record.getDouble();
+        latencyMs = record.getDouble();
+        hasTarget = record.get() != 0;
+        tagId = record.getInt();
+        tx = record.getDouble();
+        ty = record.getDouble();
+        ta = record.getDouble();
+        for (int i = 0; i < botPoseTargetSpace.length; i++) {
+            botPoseTargetSpace[i] = record.getDouble();
+        }
+        isNew = record.get() != 0;
+    }
+
+    /**
+     * @return True if the camera sees an AprilTag on the reef.
+     */
+    public boolean seesReefTag() {
+        return hasTarget && Utilities.isTagOnReef(tagId);
+    }
+
+    /**
+     * @return Name of the Limelight this frame comes from.
+     */
+    public String getLimelightName() {
+        return limelightName;
+    }
+}
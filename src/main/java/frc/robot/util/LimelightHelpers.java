@@ -3,9 +3,15 @@
 package frc.robot.util;
 
 import edu.wpi.first.networktables.DoubleArrayEntry;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.DoubleSubscriber;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringArraySubscriber;
+import edu.wpi.first.networktables.StringSubscriber;
 import edu.wpi.first.networktables.TimestampedDoubleArray;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
@@ -36,7 +42,108 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class LimelightHelpers {
 
-    private static final Map<String, DoubleArrayEntry> doubleArrayEntries = new ConcurrentHashMap<>();
+    private static final Map<String, LimelightTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Per-camera handle holding already resolved NetworkTables subscribers and
+     * publishers.
+     * <p>
+     * Looking up an entry through {@link NetworkTable#getEntry} hashes the table
+     * and entry names on every call. A LimelightTable subscribes to every key
+     * LimelightHelpers reads once, when the camera is first accessed, so later
+     * reads go straight to the typed subscriber. Keys are only published to
+     * once something writes them, and read-only keys never get a publisher.
+     * Keys not listed here are resolved the first time they are used and then
+     * kept as well.
+     */
+    public static class LimelightTable {
+        private static final String[] DOUBLE_KEYS = {
+            "tv", "tx", "ty", "txnc", "tync", "ta", "tl", "cl", "getpipe", "tid" };
+        private static final String[] DOUBLE_ARRAY_KEYS = {
+            "t2d", "tc", "botpose", "botpose_wpired", "botpose_wpiblue", "botpose_orb_wpired", "botpose_orb_wpiblue",
+            "botpose_targetspace", "camerapose_targetspace", "targetpose_cameraspace", "targetpose_robotspace",
+            "camerapose_robotspace", "rawfiducials", "rawdetections", "imu", "llpython" };
+        private static final String[] STRING_KEYS = { "tcclass", "tdclass", "tclass", "getpipetype", "json" };
+        private static final String[] STRING_ARRAY_KEYS = { "rawbarcodes" };
+
+        private final NetworkTable table;
+        private final Map<String, DoubleSubscriber> doubles = new ConcurrentHashMap<>();
+        private final Map<String, DoubleArraySubscriber> doubleArrays = new ConcurrentHashMap<>();
+        private final Map<String, StringSubscriber> strings = new ConcurrentHashMap<>();
+        private final Map<String, StringArraySubscriber> stringArrays = new ConcurrentHashMap<>();
+        private final Map<String, DoublePublisher> doublePublishers = new ConcurrentHashMap<>();
+        private final Map<String, DoubleArrayPublisher> doubleArrayPublishers = new ConcurrentHashMap<>();
+
+        private LimelightTable(String name) {
+            this.table = NetworkTableInstance.getDefault().getTable(name);
+            for (String key : DOUBLE_KEYS) {
+                doubleSubscriber(key);
+            }
+            for (String key : DOUBLE_ARRAY_KEYS) {
+                doubleArraySubscriber(key);
+            }
+            for (String key : STRING_KEYS) {
+                stringSubscriber(key);
+            }
+            for (String key : STRING_ARRAY_KEYS) {
+                stringArraySubscriber(key);
+            }
+        }
+
+        public NetworkTable getTable() {
+            return table;
+        }
+
+        public DoubleSubscriber doubleSubscriber(String key) {
+            DoubleSubscriber subscriber = doubles.get(key);
+            if (subscriber == null) {
+                subscriber = doubles.computeIfAbsent(key, k -> table.getDoubleTopic(k).subscribe(0.0));
+            }
+            return subscriber;
+        }
+
+        public DoubleArraySubscriber doubleArraySubscriber(String key) {
+            DoubleArraySubscriber subscriber = doubleArrays.get(key);
+            if (subscriber == null) {
+                subscriber = doubleArrays.computeIfAbsent(key,
+                        k -> table.getDoubleArrayTopic(k).subscribe(new double[0]));
+            }
+            return subscriber;
+        }
+
+        public StringSubscriber stringSubscriber(String key) {
+            StringSubscriber subscriber = strings.get(key);
+            if (subscriber == null) {
+                subscriber = strings.computeIfAbsent(key, k -> table.getStringTopic(k).subscribe(""));
+            }
+            return subscriber;
+        }
+
+        public StringArraySubscriber stringArraySubscriber(String key) {
+            StringArraySubscriber subscriber = stringArrays.get(key);
+            if (subscriber == null) {
+                subscriber = stringArrays.computeIfAbsent(key,
+                        k -> table.getStringArrayTopic(k).subscribe(new String[0]));
+            }
+            return subscriber;
+        }
+
+        public DoublePublisher doublePublisher(String key) {
+            DoublePublisher publisher = doublePublishers.get(key);
+            if (publisher == null) {
+                publisher = doublePublishers.computeIfAbsent(key, k -> table.getDoubleTopic(k).publish());
+            }
+            return publisher;
+        }
+
+        public DoubleArrayPublisher doubleArrayPublisher(String key) {
+            DoubleArrayPublisher publisher = doubleArrayPublishers.get(key);
+            if (publisher == null) {
+                publisher = doubleArrayPublishers.computeIfAbsent(key, k -> table.getDoubleArrayTopic(k).publish());
+            }
+            return publisher;
+        }
+    }
 
     /**
      * Represents a Color/Retroreflective Target Result extracted from JSON Output
@@ -485,6 +592,25 @@ public class LimelightHelpers {
             this.distToRobot = distToRobot;
             this.ambiguity = ambiguity;
         }
+
+        /**
+         * Instantiates a RawFiducial with default values, for use in preallocated buffers.
+         */
+        public RawFiducial() {
+        }
+
+        /**
+         * Overwrites every field, so one RawFiducial can be reused for many frames.
+         */
+        public void set(int id, double txnc, double tync, double ta, double distToCamera, double distToRobot, double ambiguity) {
+            this.id = id;
+            this.txnc = txnc;
+            this.tync = tync;
+            this.ta = ta;
+            this.distToCamera = distToCamera;
+            this.distToRobot = distToRobot;
+            this.ambiguity = ambiguity;
+        }
     }
 
     /**
@@ -523,6 +649,34 @@ public class LimelightHelpers {
             this.corner3_X = corner3_X;
             this.corner3_Y = corner3_Y;
         }
+
+        /**
+         * Instantiates a RawDetection with default values, for use in preallocated buffers.
+         */
+        public RawDetection() {
+        }
+
+        /**
+         * Overwrites every field, so one RawDetection can be reused for many frames.
+         */
+        public void set(int classId, double txnc, double tync, double ta, 
+            double corner0_X, double corner0_Y, 
+            double corner1_X, double corner1_Y, 
+            double corner2_X, double corner2_Y, 
+            double corner3_X, double corner3_Y ) {
+            this.classId = classId;
+            this.txnc = txnc;
+            this.tync = tync;
+            this.ta = ta;
+            this.corner0_X = corner0_X;
+            this.corner0_Y = corner0_Y;
+            this.corner1_X = corner1_X;
+            this.corner1_Y = corner1_Y;
+            this.corner2_X = corner2_X;
+            this.corner2_Y = corner2_Y;
+            this.corner3_X = corner3_X;
+            this.corner3_Y = corner3_Y;
+        }
     }
     
     /**
@@ -572,6 +726,94 @@ public class LimelightHelpers {
 
     }
 
+    /**
+     * Maximum number of fiducials or detections held by the reusable buffers.
+     * Anything past this in a frame is dropped.
+     */
+    public static final int MAX_TARGETS = 16;
+
+    /**
+     * Mutable, reusable version of {@link PoseEstimate}.
+     * <p>
+     * All storage is allocated up front, so decoding into a buffer every loop
+     * creates no garbage. A buffer remembers which NetworkTables entry it was
+     * read from and skips the read entirely when the Limelight hasn't published a
+     * new frame, so keep one buffer per camera.
+     */
+    public static class PoseEstimateBuffer {
+        public double x;
+        public double y;
+        public double yawRadians;
+        public double timestampSeconds;
+        public double latency;
+        public int tagCount;
+        public double tagSpan;
+        public double avgTagDist;
+        public double avgTagArea;
+
+        public final RawFiducial[] rawFiducials = new RawFiducial[MAX_TARGETS];
+        public int fiducialCount;
+        public boolean isMegaTag2;
+
+        /** True if the last decoded frame had pose data. */
+        public boolean valid;
+
+        private DoubleArraySubscriber entry;
+        private String limelightName;
+        private String entryName;
+        private long lastChange = -1;
+
+        public PoseEstimateBuffer() {
+            for (int i = 0; i < rawFiducials.length; i++) {
+                rawFiducials[i] = new RawFiducial();
+            }
+        }
+
+        /**
+         * Builds a Pose2d from the decoded pose. This allocates, so only call it
+         * once the estimate is actually going to be used.
+         * 
+         * @return The estimated robot pose
+         */
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, new Rotation2d(yawRadians));
+        }
+    }
+
+    /**
+     * Reusable storage for {@link RawFiducial} results.
+     */
+    public static class RawFiducialBuffer {
+        public final RawFiducial[] fiducials = new RawFiducial[MAX_TARGETS];
+        public int count;
+
+        private DoubleArraySubscriber entry;
+        private long lastChange = -1;
+
+        public RawFiducialBuffer() {
+            for (int i = 0; i < fiducials.length; i++) {
+                fiducials[i] = new RawFiducial();
+            }
+        }
+    }
+
+    /**
+     * Reusable storage for {@link RawDetection} results.
+     */
+    public static class RawDetectionBuffer {
+        public final RawDetection[] detections = new RawDetection[MAX_TARGETS];
+        public int count;
+
+        private DoubleArraySubscriber entry;
+        private long lastChange = -1;
+
+        public RawDetectionBuffer() {
+            for (int i = 0; i < detections.length; i++) {
+                detections[i] = new RawDetection();
+            }
+        }
+    }
+
     /**
      * Encapsulates the state of an internal Limelight IMU.
      */
@@ -702,12 +944,22 @@ public class LimelightHelpers {
     }
 
     private static PoseEstimate getBotPoseEstimate(String limelightName, String entryName, boolean isMegaTag2) {
-        DoubleArrayEntry poseEntry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
+        DoubleArraySubscriber poseEntry = LimelightHelpers.getLimelightDoubleArraySubscriber(limelightName, entryName);
         
         TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-        double[] poseArray = tsValue.value;
-        long timestamp = tsValue.timestamp;
-        
+        return decodePoseEstimate(tsValue.value, tsValue.timestamp, isMegaTag2);
+    }
+
+    /**
+     * Decodes a botpose array (as published by the Limelight) into a PoseEstimate.
+     * Split out of getBotPoseEstimate so the decoding can be benchmarked without NetworkTables.
+     *
+     * @param poseArray Raw botpose array
+     * @param timestamp Server timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 topic
+     * @return The decoded PoseEstimate, or null if the array is empty
+     */
+    public static PoseEstimate decodePoseEstimate(double[] poseArray, long timestamp, boolean isMegaTag2) {
         if (poseArray.length == 0) {
             // Handle the case where no data is available
             return null; // or some default PoseEstimate
@@ -746,6 +998,69 @@ public class LimelightHelpers {
         return new PoseEstimate(pose, adjustedTimestamp, latency, tagCount, tagSpan, tagDist, tagArea, rawFiducials, isMegaTag2);
     }
 
+    private static boolean getBotPoseEstimate(String limelightName, String entryName, boolean isMegaTag2, PoseEstimateBuffer out) {
+        if (out.entry == null || !limelightName.equals(out.limelightName) || !entryName.equals(out.entryName)) {
+            out.entry = getLimelightDoubleArraySubscriber(limelightName, entryName);
+            out.limelightName = limelightName;
+            out.entryName = entryName;
+            out.lastChange = -1;
+        }
+
+        long lastChange = out.entry.getLastChange();
+        if (lastChange == out.lastChange) {
+            return false;
+        }
+        out.lastChange = lastChange;
+
+        TimestampedDoubleArray tsValue = out.entry.getAtomic();
+        return decodePoseEstimate(tsValue.value, tsValue.timestamp, isMegaTag2, out);
+    }
+
+    /**
+     * Decodes a botpose array into a caller owned buffer without allocating.
+     *
+     * @param poseArray Raw botpose array
+     * @param timestamp Server timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 topic
+     * @param out Buffer to decode into
+     * @return True if the array held a pose, false if it was empty
+     */
+    public static boolean decodePoseEstimate(double[] poseArray, long timestamp, boolean isMegaTag2, PoseEstimateBuffer out) {
+        out.isMegaTag2 = isMegaTag2;
+        out.fiducialCount = 0;
+        if (poseArray.length < 6) {
+            out.valid = false;
+            out.tagCount = 0;
+            return false;
+        }
+
+        out.x = poseArray[0];
+        out.y = poseArray[1];
+        out.yawRadians = Units.degreesToRadians(poseArray[5]);
+        out.latency = extractArrayEntry(poseArray, 6);
+        out.tagCount = (int)extractArrayEntry(poseArray, 7);
+        out.tagSpan = extractArrayEntry(poseArray, 8);
+        out.avgTagDist = extractArrayEntry(poseArray, 9);
+        out.avgTagArea = extractArrayEntry(poseArray, 10);
+
+        // Convert server timestamp from microseconds to seconds and adjust for latency
+        out.timestampSeconds = (timestamp / 1000000.0) - (out.latency / 1000.0);
+
+        int valsPerFiducial = 7;
+        if (out.tagCount > 0 && poseArray.length == 11 + valsPerFiducial * out.tagCount) {
+            int count = Math.min(out.tagCount, MAX_TARGETS);
+            for (int i = 0; i < count; i++) {
+                int baseIndex = 11 + (i * valsPerFiducial);
+                out.rawFiducials[i].set((int)poseArray[baseIndex], poseArray[baseIndex + 1], poseArray[baseIndex + 2],
+                    poseArray[baseIndex + 3], poseArray[baseIndex + 4], poseArray[baseIndex + 5], poseArray[baseIndex + 6]);
+            }
+            out.fiducialCount = count;
+        }
+
+        out.valid = true;
+        return true;
+    }
+
     /**
      * Gets the latest raw fiducial/AprilTag detection results from NetworkTables.
      * 
@@ -753,8 +1068,7 @@ public class LimelightHelpers {
      * @return Array of RawFiducial objects containing detection details
      */
     public static RawFiducial[] getRawFiducials(String limelightName) {
-        var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawfiducials");
-        var rawFiducialArray = entry.getDoubleArray(new double[0]);
+        var rawFiducialArray = getLimelightNTDoubleArray(limelightName, "rawfiducials");
         int valsPerEntry = 7;
         if (rawFiducialArray.length % valsPerEntry != 0) {
             return new RawFiducial[0];
@@ -779,6 +1093,43 @@ public class LimelightHelpers {
         return rawFiducials;
     }
 
+    /**
+     * Reads the latest raw fiducial results into a reusable buffer. Does nothing
+     * if the Limelight hasn't published since the last call.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to fill, only ever used for this Limelight
+     * @return True if new results were read
+     */
+    public static boolean getRawFiducials(String limelightName, RawFiducialBuffer out) {
+        if (out.entry == null) {
+            out.entry = getLimelightDoubleArraySubscriber(limelightName, "rawfiducials");
+        }
+
+        long lastChange = out.entry.getLastChange();
+        if (lastChange == out.lastChange) {
+            return false;
+        }
+        out.lastChange = lastChange;
+
+        double[] rawFiducialArray = out.entry.get();
+        int valsPerEntry = 7;
+        out.count = 0;
+        if (rawFiducialArray.length % valsPerEntry != 0) {
+            return true;
+        }
+
+        int count = Math.min(rawFiducialArray.length / valsPerEntry, MAX_TARGETS);
+        for (int i = 0; i < count; i++) {
+            int baseIndex = i * valsPerEntry;
+            out.fiducials[i].set((int)rawFiducialArray[baseIndex], rawFiducialArray[baseIndex + 1],
+                rawFiducialArray[baseIndex + 2], rawFiducialArray[baseIndex + 3], rawFiducialArray[baseIndex + 4],
+                rawFiducialArray[baseIndex + 5], rawFiducialArray[baseIndex + 6]);
+        }
+        out.count = count;
+        return true;
+    }
+
     /**
      * Gets the latest raw neural detector results from NetworkTables
      *
@@ -786,8 +1137,7 @@ public class LimelightHelpers {
      * @return Array of RawDetection objects containing detection details
      */
     public static RawDetection[] getRawDetections(String limelightName) {
-        var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawdetections");
-        var rawDetectionArray = entry.getDoubleArray(new double[0]);
+        var rawDetectionArray = getLimelightNTDoubleArray(limelightName, "rawdetections");
         int valsPerEntry = 12;
         if (rawDetectionArray.length % valsPerEntry != 0) {
             return new RawDetection[0];
@@ -860,12 +1210,52 @@ public class LimelightHelpers {
         }
     }
 
+    /**
+     * Reads the latest raw neural detector results into a reusable buffer. Does
+     * nothing if the Limelight hasn't published since the last call.
+     *
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to fill, only ever used for this Limelight
+     * @return True if new results were read
+     */
+    public static boolean getRawDetections(String limelightName, RawDetectionBuffer out) {
+        if (out.entry == null) {
+            out.entry = getLimelightDoubleArraySubscriber(limelightName, "rawdetections");
+        }
+
+        long lastChange = out.entry.getLastChange();
+        if (lastChange == out.lastChange) {
+            return false;
+        }
+        out.lastChange = lastChange;
+
+        double[] rawDetectionArray = out.entry.get();
+        int valsPerEntry = 12;
+        out.count = 0;
+        if (rawDetectionArray.length % valsPerEntry != 0) {
+            return true;
+        }
+
+        int count = Math.min(rawDetectionArray.length / valsPerEntry, MAX_TARGETS);
+        for (int i = 0; i < count; i++) {
+            int baseIndex = i * valsPerEntry;
+            out.detections[i].set((int)rawDetectionArray[baseIndex], rawDetectionArray[baseIndex + 1],
+                rawDetectionArray[baseIndex + 2], rawDetectionArray[baseIndex + 3],
+                rawDetectionArray[baseIndex + 4], rawDetectionArray[baseIndex + 5],
+                rawDetectionArray[baseIndex + 6], rawDetectionArray[baseIndex + 7],
+                rawDetectionArray[baseIndex + 8], rawDetectionArray[baseIndex + 9],
+                rawDetectionArray[baseIndex + 10], rawDetectionArray[baseIndex + 11]);
+        }
+        out.count = count;
+        return true;
+    }
+
     public static Boolean validPoseEstimate(PoseEstimate pose) {
         return pose != null && pose.rawFiducials != null && pose.rawFiducials.length != 0;
     }
 
     public static NetworkTable getLimelightNTTable(String tableName) {
-        return NetworkTableInstance.getDefault().getTable(sanitizeName(tableName));
+        return getLimelightTable(tableName).getTable();
     }
 
     public static void Flush() {
@@ -876,37 +1266,56 @@ public class LimelightHelpers {
         return getLimelightNTTable(tableName).getEntry(entryName);
     }
 
+    /**
+     * Gets the cached handle for a Limelight, creating it on first use.
+     *
+     * @param limelightName Name of the Limelight camera ("" for default)
+     * @return The camera's LimelightTable
+     */
+    public static LimelightTable getLimelightTable(String limelightName) {
+        String name = sanitizeName(limelightName);
+        LimelightTable table = tables.get(name);
+        if (table == null) {
+            table = tables.computeIfAbsent(name, LimelightTable::new);
+        }
+        return table;
+    }
+
+    /**
+     * Creates a publisher as well as a subscriber. Only reading should use
+     * {@link #getLimelightDoubleArraySubscriber(String, String)} instead.
+     */
     public static DoubleArrayEntry getLimelightDoubleArrayEntry(String tableName, String entryName) {
-        String key = tableName + "/" + entryName;
-        return doubleArrayEntries.computeIfAbsent(key, k -> {
-            NetworkTable table = getLimelightNTTable(tableName);
-            return table.getDoubleArrayTopic(entryName).getEntry(new double[0]);
-        });
+        return getLimelightNTTable(tableName).getDoubleArrayTopic(entryName).getEntry(new double[0]);
+    }
+
+    public static DoubleArraySubscriber getLimelightDoubleArraySubscriber(String tableName, String entryName) {
+        return getLimelightTable(tableName).doubleArraySubscriber(entryName);
     }
     
     public static double getLimelightNTDouble(String tableName, String entryName) {
-        return getLimelightNTTableEntry(tableName, entryName).getDouble(0.0);
+        return getLimelightTable(tableName).doubleSubscriber(entryName).get();
     }
 
     public static void setLimelightNTDouble(String tableName, String entryName, double val) {
-        getLimelightNTTableEntry(tableName, entryName).setDouble(val);
+        getLimelightTable(tableName).doublePublisher(entryName).set(val);
     }
 
     public static void setLimelightNTDoubleArray(String tableName, String entryName, double[] val) {
-        getLimelightNTTableEntry(tableName, entryName).setDoubleArray(val);
+        getLimelightTable(tableName).doubleArrayPublisher(entryName).set(val);
     }
 
     public static double[] getLimelightNTDoubleArray(String tableName, String entryName) {
-        return getLimelightNTTableEntry(tableName, entryName).getDoubleArray(new double[0]);
+        return getLimelightTable(tableName).doubleArraySubscriber(entryName).get();
     }
 
 
     public static String getLimelightNTString(String tableName, String entryName) {
-        return getLimelightNTTableEntry(tableName, entryName).getString("");
+        return getLimelightTable(tableName).stringSubscriber(entryName).get();
     }
 
     public static String[] getLimelightNTStringArray(String tableName, String entryName) {
-        return getLimelightNTTableEntry(tableName, entryName).getStringArray(new String[0]);
+        return getLimelightTable(tableName).stringArraySubscriber(entryName).get();
     }
 
 
@@ -1271,6 +1680,18 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_wpiblue", false);
     }
 
+    /**
+     * Decodes the latest pose estimate (MegaTag1, blue alliance origin) into a reusable buffer
+     * without allocating. Does nothing if no new frame has been published.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to decode into
+     * @return True if a new pose estimate was decoded
+     */
+    public static boolean getBotPoseEstimate_wpiBlue(String limelightName, PoseEstimateBuffer out) {
+        return getBotPoseEstimate(limelightName, "botpose_wpiblue", false, out);
+    }
+
     /**
      * Gets the MegaTag2 Pose2d and timestamp for use with WPILib pose estimator (addVisionMeasurement) in the WPILib Blue alliance coordinate system.
      * Make sure you are calling setRobotOrientation() before calling this method.
@@ -1282,6 +1703,18 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_orb_wpiblue", true);
     }
 
+    /**
+     * Decodes the latest pose estimate (MegaTag2, blue alliance origin) into a reusable buffer
+     * without allocating. Does nothing if no new frame has been published.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to decode into
+     * @return True if a new pose estimate was decoded
+     */
+    public static boolean getBotPoseEstimate_wpiBlue_MegaTag2(String limelightName, PoseEstimateBuffer out) {
+        return getBotPoseEstimate(limelightName, "botpose_orb_wpiblue", true, out);
+    }
+
     /**
      * Gets the Pose2d for easy use with Odometry vision pose estimator
      * (addVisionMeasurement)
@@ -1306,6 +1739,18 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_wpired", false);
     }
 
+    /**
+     * Decodes the latest pose estimate (MegaTag1, red alliance origin) into a reusable buffer
+     * without allocating. Does nothing if no new frame has been published.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to decode into
+     * @return True if a new pose estimate was decoded
+     */
+    public static boolean getBotPoseEstimate_wpiRed(String limelightName, PoseEstimateBuffer out) {
+        return getBotPoseEstimate(limelightName, "botpose_wpired", false, out);
+    }
+
     /**
      * Gets the Pose2d and timestamp for use with WPILib pose estimator (addVisionMeasurement) when you are on the RED
      * alliance
@@ -1316,6 +1761,18 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_orb_wpired", true);
     }
 
+    /**
+     * Decodes the latest pose estimate (MegaTag2, red alliance origin) into a reusable buffer
+     * without allocating. Does nothing if no new frame has been published.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param out Buffer to decode into
+     * @return True if a new pose estimate was decoded
+     */
+    public static boolean getBotPoseEstimate_wpiRed_MegaTag2(String limelightName, PoseEstimateBuffer out) {
+        return getBotPoseEstimate(limelightName, "botpose_orb_wpired", true, out);
+    }
+
     /**
      * Gets the Pose2d for easy use with Odometry vision pose estimator
      * (addVisionMeasurement)
@@ -1620,6 +2077,15 @@ public class LimelightHelpers {
      * @return LimelightResults object containing all current target data
      */
     public static LimelightResults getLatestResults(String limelightName) {
+        return parseLatestResults(getJSONDump(limelightName));
+    }
+
+    /**
+     * Parses a JSON results dump into a LimelightResults object.
+     * @param json JSON string as published on the "json" entry
+     * @return LimelightResults object containing all target data in the dump
+     */
+    public static LimelightResults parseLatestResults(String json) {
 
         long start = System.nanoTime();
         LimelightHelpers.LimelightResults results = new LimelightHelpers.LimelightResults();
@@ -1628,7 +2094,7 @@ public class LimelightHelpers {
         }
 
         try {
-            results = mapper.readValue(getJSONDump(limelightName), LimelightResults.class);
+            results = mapper.readValue(json, LimelightResults.class);
         } catch (JsonProcessingException e) {
             results.error = "lljson error: " + e.getMessage();
         }
@@ -0,0 +1,360 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+
+/**
+ * Times pieces of the scheduler cycle (subsystem periodics, command
+ * execute/isFinished and trigger polling) in nanoseconds.
+ * <p>
+ * Samples go into preallocated ring buffers, so profiling does not add garbage
+ * to the main loop. Every {@link #PUBLISH_PERIOD_CYCLES} cycles the p50, p95,
+ * p99 and max of every section, plus how often it went over its budget, are
+ * published under the "Profiler" NetworkTables table.
+ */
+public final class LoopProfiler {
+    /** Number of samples kept per section (about 5 seconds at 50 Hz). */
+    public static final int SAMPLE_COUNT = 256;
+
+    /** How many scheduler cycles between NetworkTables publishes. */
+    public static final int PUBLISH_PERIOD_CYCLES = 50;
+
+    /** Budget for a whole robot loop. */
+    public static final long LOOP_BUDGET_NANOS = 20_000_000L;
+
+    /** Default budget for a single section of the loop. */
+    public static final long SECTION_BUDGET_NANOS = 2_000_000L;
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("Profiler");
+    private static final Map<String, Section> sections = new HashMap<>();
+    private static final List<Section> sectionList = new ArrayList<>();
+    private static final long[] sortScratch = new long[SAMPLE_COUNT];
+    private static final Map<String, CommandTime> commandTimes = new LinkedHashMap<>();
+
+    private static final Section loop = section("Loop", LOOP_BUDGET_NANOS);
+    private static final Section triggers = section("Triggers/poll");
+
+    private static long cycles = 0;
+
+    /**
+     * A named, individually timed piece of the robot loop.
+     */
+    public static final class Section {
+        private final String name;
+        private final long budgetNanos;
+        private final long[] samples = new long[SAMPLE_COUNT];
+        private int next = 0;
+        private int count = 0;
+        private long overruns = 0;
+        private long startNanos = 0;
+        private long lastNanos = 0;
+
+        private final DoublePublisher p50Pub;
+        private final DoublePublisher p95Pub;
+        private final DoublePublisher p99Pub;
+        private final DoublePublisher maxPub;
+        private final IntegerPublisher overrunPub;
+
+        private Section(String name, long budgetNanos) {
+            this.name = name;
+            this.budgetNanos = budgetNanos;
+
+            NetworkTable sub = table.getSubTable(name);
+            this.p50Pub = sub.getDoubleTopic("p50Ms").publish();
+            this.p95Pub = sub.getDoubleTopic("p95Ms").publish();
+            this.p99Pub = sub.getDoubleTopic("p99Ms").publish();
+            this.maxPub = sub.getDoubleTopic("maxMs").publish();
+            this.overrunPub = sub.getIntegerTopic("overruns").publish();
+        }
+
+        /**
+         * Marks the start of this section.
+         */
+        public void start() {
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Marks the end of this section and records the time since {@link #start()}.
+         */
+        public void stop() {
+            record(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Records an externally measured duration.
+         *
+         * @param nanos Duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SAMPLE_COUNT;
+            if (count < SAMPLE_COUNT)
+                count++;
+            if (nanos > budgetNanos)
+                overruns++;
+            lastNanos = nanos;
+        }
+
+        /**
+         * @return The most recently recorded duration in nanoseconds.
+         */
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        /**
+         * @return Name of this section.
+         */
+        public String getName() {
+            return name;
+        }
+
+        private void publish() {
+            if (count == 0)
+                return;
+
+            System.arraycopy(samples, 0, sortScratch, 0, count);
+            Arrays.sort(sortScratch, 0, count);
+
+            p50Pub.set(percentile(0.50) * 1e-6);
+            p95Pub.set(percentile(0.95) * 1e-6);
+            p99Pub.set(percentile(0.99) * 1e-6);
+            maxPub.set(sortScratch[count - 1] * 1e-6);
+            overrunPub.set(overruns);
+        }
+
+        private long percentile(double q) {
+            return sortScratch[(int) Math.round((count - 1) * q)];
+        }
+    }
+
+    /**
+     * How long a profiled command has run, from initialize() to end(), summed
+     * over all its runs.
+     */
+    public static final class CommandTime {
+        private final String name;
+        private int runs;
+        private double totalSeconds;
+
+        private CommandTime(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return Name the command is profiled under.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Number of times the command ended.
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * @return Total time the command ran, in seconds.
+         */
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+    }
+
+    /**
+     * Gets (or creates) the section with the given name, using the default
+     * section budget.
+     * <p>
+     * Sections should be created once at startup and kept in a field.
+     *
+     * @param name Name shown under the "Profiler" table.
+     * @return The section.
+     */
+    public static Section section(String name) {
+        return section(name, SECTION_BUDGET_NANOS);
+    }
+
+    /**
+     * Gets (or creates) the section with the given name.
+     *
+     * @param name        Name shown under the "Profiler" table.
+     * @param budgetNanos Samples longer than this count as an overrun.
+     * @return The section.
+     */
+    public static Section section(String name, long budgetNanos) {
+        return sections.computeIfAbsent(name, n -> {
+            Section section = new Section(n, budgetNanos);
+            sectionList.add(section);
+            return section;
+        });
+    }
+
+    /**
+     * Wraps a command so its execute() and isFinished() are timed under its own
+     * name.
+     *
+     * @param command Command to profile.
+     * @return The profiled command.
+     */
+    public static Command profile(Command command) {
+        return profile(command.getName(), command);
+    }
+
+    /**
+     * Wraps a command so its execute() and isFinished() are timed.
+     *
+     * @param name    Name to time the command under.
+     * @param command Command to profile.
+     * @return The profiled command.
+     */
+    public static Command profile(String name, Command command) {
+        return new ProfiledCommand(name, command);
+    }
+
+    /**
+     * Binds the start of the trigger polling section to the default button loop.
+     * <p>
+     * Call before any triggers are bound.
+     */
+    public static void beginTriggerBindings() {
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(triggers::start);
+    }
+
+    /**
+     * Binds the end of the trigger polling section to the default button loop.
+     * <p>
+     * Call after all triggers are bound.
+     */
+    public static void endTriggerBindings() {
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(triggers::stop);
+    }
+
+    /**
+     * Marks the start of a robot loop. Call before anything else in the loop.
+     */
+    public static void startCycle() {
+        loop.start();
+    }
+
+    /**
+     * Marks the end of a robot loop. Call after everything else in the loop.
+     */
+    public static void endCycle() {
+        loop.stop();
+
+        cycles++;
+        if (cycles % PUBLISH_PERIOD_CYCLES == 0) {
+            for (int i = 0; i < sectionList.size(); i++) {
+                sectionList.get(i).publish();
+            }
+        }
+    }
+
+    /**
+     * @return Run times of every profiled command, in the order they first
+     *         ran.
+     */
+    public static Collection<CommandTime> getCommandTimes() {
+        return Collections.unmodifiableCollection(commandTimes.values());
+    }
+
+    /**
+     * Clears the run times of every profiled command.
+     */
+    public static void resetCommandTimes() {
+        commandTimes.clear();
+    }
+
+    /**
+     * @return Duration of the last full robot loop in nanoseconds.
+     */
+    public static long getLastCycleNanos() {
+        return loop.getLastNanos();
+    }
+
+    /**
+     * @return True if the last robot loop went over {@link #LOOP_BUDGET_NANOS}.
+     */
+    public static boolean lastCycleOverran() {
+        return loop.getLastNanos() > LOOP_BUDGET_NANOS;
+    }
+
+    /**
+     * @return Number of completed robot loops.
+     */
+    public static long getCycleCount() {
+        return cycles;
+    }
+
+    /**
+     * Command wrapper that times execute() and isFinished() of the inner command,
+     * and how long it runs.
+     */
+    private static class ProfiledCommand extends WrapperCommand {
+        private final Section execute;
+        private final Section isFinished;
+        private double startSeconds;
+
+        private ProfiledCommand(String name, Command command) {
+            super(command);
+            setName(name);
+            this.execute = section("Commands/" + name + "/execute");
+            this.isFinished = section("Commands/" + name + "/isFinished");
+        }
+
+        @Override
+        public void initialize() {
+            startSeconds = Timer.getFPGATimestamp();
+            m_command.initialize();
+        }
+
+        @Override
+        public void execute() {
+            execute.start();
+            m_command.execute();
+            execute.stop();
+        }
+
+        @Override
+        public boolean isFinished() {
+            isFinished.start();
+            boolean finished = m_command.isFinished();
+            isFinished.stop();
+            return finished;
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            m_command.end(interrupted);
+
+            CommandTime time = commandTimes.get(getName());
+            if (time == null) {
+                time = new CommandTime(getName());
+                commandTimes.put(getName(), time);
+            }
+            time.runs++;
+            time.totalSeconds += Timer.getFPGATimestamp() - startSeconds;
+        }
+    }
+
+    private LoopProfiler() {
+    }
+}
@@ -0,0 +1,185 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Rigid body physics model of a mecanum drivetrain for simulation.
+ * <p>
+ * Each wheel's motor torque is computed from its voltage and current speed,
+ * limited by the current limit and by traction, and turned into a force along
+ * the wheel. The forces are summed into a force and torque on the chassis
+ * using the same wheel layout as MecanumDriveKinematics (front left, front
+ * right, back left, back right), which moves the robot and so the wheels. The
+ * loop period is split into smaller steps because the chassis' rotation
+ * settles faster than 20 ms.
+ * <p>
+ * Positions and headings are field relative with counterclockwise positive,
+ * starting at the origin facing 0.
+ */
+public class MecanumDriveSim {
+    private static final double GRAVITY = 9.81;
+    private static final int STEPS_PER_UPDATE = 10;
+
+    // Sign of vy and omega in each wheel's surface speed, in kinematics order
+    private static final double[] STRAFE_SIGN = { -1, 1, 1, -1 };
+    private static final double[] TURN_SIGN = { -1, 1, -1, 1 };
+
+    private final DCMotor motor;
+    private final double gearing;
+    private final double wheelRadiusMeters;
+    private final double turnRadiusMeters;
+    private final double massKg;
+    private final double moiKgMetersSquared;
+    private final double currentLimitAmps;
+    private final double maxWheelForceNewtons;
+
+    private double xMeters;
+    private double yMeters;
+    private double headingRadians;
+    private double vxMetersPerSecond;
+    private double vyMetersPerSecond;
+    private double omegaRadiansPerSecond;
+
+    private final double[] wheelSpeedsMetersPerSecond = new double[4];
+    private final double[] wheelPositionsMeters = new double[4];
+    private final double[] wheelForcesNewtons = new double[4];
+
+    /**
+     * @param motor              Motor driving each wheel.
+     * @param gearing            Motor rotations per wheel rotation.
+     * @param wheelRadiusMeters  Wheel radius.
+     * @param wheelOffsetX       Distance of each wheel from the center of the
+     *                           robot along X, in meters.
+     * @param wheelOffsetY       Distance of each wheel from the center of the
+     *                           robot along Y, in meters.
+     * @param massKg             Robot mass.
+     * @param moiKgMetersSquared Robot moment of inertia around its center.
+     * @param currentLimitAmps   Current limit of each motor.
+     * @param wheelCof           Coefficient of friction between the wheels and
+     *                           the carpet.
+     */
+    public MecanumDriveSim(DCMotor motor, double gearing, double wheelRadiusMeters, double wheelOffsetX,
+            double wheelOffsetY, double massKg, double moiKgMetersSquared, double currentLimitAmps, double wheelCof) {
+        this.motor = motor;
+        this.gearing = gearing;
+        this.wheelRadiusMeters = wheelRadiusMeters;
+        this.turnRadiusMeters = wheelOffsetX + wheelOffsetY;
+        this.massKg = massKg;
+        this.moiKgMetersSquared = moiKgMetersSquared;
+        this.currentLimitAmps = currentLimitAmps;
+        this.maxWheelForceNewtons = wheelCof * massKg * GRAVITY / 4;
+    }
+
+    /**
+     * Advances the model.
+     *
+     * @param flVolts   Voltage applied to the front left motor.
+     * @param frVolts   Voltage applied to the front right motor.
+     * @param blVolts   Voltage applied to the back left motor.
+     * @param brVolts   Voltage applied to the back right motor.
+     * @param dtSeconds Time to advance by.
+     */
+    public void update(double flVolts, double frVolts, double blVolts, double brVolts, double dtSeconds) {
+        double dt = dtSeconds / STEPS_PER_UPDATE;
+        for (int step = 0; step < STEPS_PER_UPDATE; step++) {
+            updateWheelSpeeds();
+            wheelForcesNewtons[0] = wheelForce(flVolts, wheelSpeedsMetersPerSecond[0]);
+            wheelForcesNewtons[1] = wheelForce(frVolts, wheelSpeedsMetersPerSecond[1]);
+            wheelForcesNewtons[2] = wheelForce(blVolts, wheelSpeedsMetersPerSecond[2]);
+            wheelForcesNewtons[3] = wheelForce(brVolts, wheelSpeedsMetersPerSecond[3]);
+
+            // Transpose of the inverse kinematics
+            double fx = 0;
+            double fy = 0;
+            double torque = 0;
+            for (int i = 0; i < 4; i++) {
+                fx += wheelForcesNewtons[i];
+                fy += STRAFE_SIGN[i] * wheelForcesNewtons[i];
+                torque += TURN_SIGN[i] * turnRadiusMeters * wheelForcesNewtons[i];
+            }
+
+            // Integrate in field coordinates so turning while moving is handled
+            double cos = Math.cos(headingRadians);
+            double sin = Math.sin(headingRadians);
+            double fieldVx = vxMetersPerSecond * cos - vyMetersPerSecond * sin
+                    + (fx * cos - fy * sin) / massKg * dt;
+            double fieldVy = vxMetersPerSecond * sin + vyMetersPerSecond * cos
+                    + (fx * sin + fy * cos) / massKg * dt;
+            omegaRadiansPerSecond += torque / moiKgMetersSquared * dt;
+
+            xMeters += fieldVx * dt;
+            yMeters += fieldVy * dt;
+            headingRadians += omegaRadiansPerSecond * dt;
+
+            cos = Math.cos(headingRadians);
+            sin = Math.sin(headingRadians);
+            vxMetersPerSecond = fieldVx * cos + fieldVy * sin;
+            vyMetersPerSecond = -fieldVx * sin + fieldVy * cos;
+
+            updateWheelSpeeds();
+            for (int i = 0; i < 4; i++) {
+                wheelPositionsMeters[i] += wheelSpeedsMetersPerSecond[i] * dt;
+            }
+        }
+    }
+
+    /**
+     * Force a wheel pushes the robot with, from its motor's torque.
+     */
+    private double wheelForce(double volts, double wheelSpeedMetersPerSecond) {
+        double motorSpeed = wheelSpeedMetersPerSecond / wheelRadiusMeters * gearing;
+        double current = Math.max(-currentLimitAmps, Math.min(currentLimitAmps, motor.getCurrent(motorSpeed, volts)));
+        double force = motor.getTorque(current) * gearing / wheelRadiusMeters;
+        return Math.max(-maxWheelForceNewtons, Math.min(maxWheelForceNewtons, force));
+    }
+
+    /**
+     * Inverse kinematics of the current robot relative velocity.
+     */
+    private void updateWheelSpeeds() {
+        for (int i = 0; i < 4; i++) {
+            wheelSpeedsMetersPerSecond[i] = vxMetersPerSecond + STRAFE_SIGN[i] * vyMetersPerSecond
+                    + TURN_SIGN[i] * turnRadiusMeters * omegaRadiansPerSecond;
+        }
+    }
+
+    /**
+     * @param wheel Wheel index: 0 front left, 1 front right, 2 back left, 3 back
+     *              right.
+     * @return Distance the wheel has rolled, in wheel rotations.
+     */
+    public double getWheelPositionRotations(int wheel) {
+        return wheelPositionsMeters[wheel] / (2 * Math.PI * wheelRadiusMeters);
+    }
+
+    /**
+     * @param wheel Wheel index: 0 front left, 1 front right, 2 back left, 3 back
+     *              right.
+     * @return Wheel speed in RPM.
+     */
+    public double getWheelVelocityRpm(int wheel) {
+        return wheelSpeedsMetersPerSecond[wheel] / (2 * Math.PI * wheelRadiusMeters) * 60;
+    }
+
+    public double getXMeters() {
+        return xMeters;
+    }
+
+    public double getYMeters() {
+        return yMeters;
+    }
+
+    /**
+     * @return Heading in radians, counterclockwise positive and not wrapped.
+     */
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    /**
+     * @return Turn rate in radians per second, counterclockwise positive.
+     */
+    public double getOmegaRadiansPerSecond() {
+        return omegaRadiansPerSecond;
+    }
+}
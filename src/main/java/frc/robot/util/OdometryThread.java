@@ -0,0 +1,148 @@
+package frc.robot.util;
+
+import java.nio.ByteBuffer;
+
+import com.revrobotics.RelativeEncoder;
+import com.studica.frc.AHRS;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.libs.SpscQueue;
+
+/**
+ * Samples the drive encoders and gyro faster than the robot loop.
+ * <p>
+ * A {@link Notifier} reads the four wheel positions and the gyro yaw at
+ * {@link #FREQUENCY_HZ} and stamps each sample with the FPGA time. Samples are
+ * queued in a {@link SpscQueue}; the drive subsystem replays all of them into
+ * the pose estimator with updateWithTime every cycle, so odometry integrates
+ * the path at the higher rate instead of one straight line per 20 ms.
+ */
+public class OdometryThread {
+    /** How often the encoders and gyro are sampled. */
+    public static final double FREQUENCY_HZ = 200;
+
+    /** Samples that can wait for the main loop (about 160 ms worth). */
+    public static final int QUEUE_CAPACITY = 32;
+
+    /**
+     * One odometry reading. Wheel positions are in meters.
+     */
+    public static class Sample implements InputLog.Inputs {
+        /** Struct schema of a logged sample, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double timestampSeconds;double yawRadians;"
+                + "double frontLeftMeters;double frontRightMeters;double rearLeftMeters;double rearRightMeters";
+
+        public double timestampSeconds;
+        public double yawRadians;
+        public double frontLeftMeters;
+        public double frontRightMeters;
+        public double rearLeftMeters;
+        public double rearRightMeters;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(timestampSeconds);
+            BinaryLogger.putDouble(yawRadians);
+            BinaryLogger.putDouble(frontLeftMeters);
+            BinaryLogger.putDouble(frontRightMeters);
+            BinaryLogger.putDouble(rearLeftMeters);
+            BinaryLogger.putDouble(rearRightMeters);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            timestampSeconds = record.getDouble();
+            yawRadians = record.getDouble();
+            frontLeftMeters = record.getDouble();
+            frontRightMeters = record.getDouble();
+            rearLeftMeters = record.getDouble();
+            rearRightMeters = record.getDouble();
+        }
+    }
+
+    private final RelativeEncoder fl;
+    private final RelativeEncoder fr;
+    private final RelativeEncoder bl;
+    private final RelativeEncoder br;
+    private final AHRS gyro;
+
+    private final SpscQueue<Sample> queue = new SpscQueue<>(QUEUE_CAPACITY, Sample::new);
+    private final Notifier notifier = new Notifier(this::sample);
+
+    private volatile long droppedCount = 0;
+
+    /**
+     * Creates an odometry thread. Call {@link #start()} to begin sampling.
+     *
+     * @param fl   Front left wheel encoder.
+     * @param fr   Front right wheel encoder.
+     * @param bl   Back left wheel encoder.
+     * @param br   Back right wheel encoder.
+     * @param gyro The robot's gyro.
+     */
+    public OdometryThread(RelativeEncoder fl, RelativeEncoder fr, RelativeEncoder bl, RelativeEncoder br,
+            AHRS gyro) {
+        this.fl = fl;
+        this.fr = fr;
+        this.bl = bl;
+        this.br = br;
+        this.gyro = gyro;
+        notifier.setName("Odometry");
+    }
+
+    /**
+     * Starts sampling.
+     */
+    public void start() {
+        notifier.startPeriodic(1.0 / FREQUENCY_HZ);
+    }
+
+    /**
+     * Stops sampling.
+     */
+    public void stop() {
+        notifier.stop();
+    }
+
+    /**
+     * Main loop only. Gets the oldest queued sample.
+     *
+     * @return The sample, or null if there are none. Call {@link #commitRead()}
+     *         when done with it.
+     */
+    public Sample beginRead() {
+        return queue.beginRead();
+    }
+
+    /**
+     * Main loop only. Releases the sample from {@link #beginRead()}.
+     */
+    public void commitRead() {
+        queue.commitRead();
+    }
+
+    /**
+     * @return Number of samples dropped because the main loop didn't drain the
+     *         queue in time.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void sample() {
+        Sample s = queue.beginWrite();
+        if (s == null) {
+            droppedCount++;
+            return;
+        }
+
+        s.timestampSeconds = Timer.getFPGATimestamp();
+        s.yawRadians = gyro.getRotation2d().getRadians();
+        s.frontLeftMeters = fl.getPosition() * DriveKinematics.METERS_PER_ROTATION;
+        s.frontRightMeters = fr.getPosition() * DriveKinematics.METERS_PER_ROTATION;
+        s.rearLeftMeters = bl.getPosition() * DriveKinematics.METERS_PER_ROTATION;
+        s.rearRightMeters = br.getPosition() * DriveKinematics.METERS_PER_ROTATION;
+        queue.commitWrite();
+    }
+}
@@ -0,0 +1,324 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.Waypoint;
+import com.pathplanner.lib.pathfinding.LocalADStar;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import com.pathplanner.lib.pathfinding.Pathfinding;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.robot.Constants;
+
+/**
+ * On the fly pathfinding to the reef and coral stations, around the obstacles
+ * in the deploy directory's pathplanner/navgrid.json.
+ * <p>
+ * Installs PathPlanner's AD* pathfinder behind a cache of plans, keyed by the
+ * navgrid cell the robot starts in and the exact goal. A pathfind that starts
+ * in a cell that already has a plan to the same goal uses it right away
+ * instead of waiting for the pathfinder's thread, with its first point moved
+ * to where the robot is. New plans are added as they're made.
+ * <p>
+ * While the robot is disabled after boot, a background thread plans every
+ * trip between a coral station and a branch of the reef next to it, both
+ * ways, which also warms up the pathfinder. It stops once the robot is
+ * enabled, and doesn't run in replay.
+ */
+public class PathfindingPlanner {
+    // Give up on a warm up plan after this long
+    private static final long WARM_UP_PLAN_TIMEOUT_MS = 2000;
+    private static final long WARM_UP_POLL_MS = 20;
+
+    private final ReefTargets reefTargets;
+    private final Pose2d[] coralStations;
+    private final Supplier<Pose2d> pose;
+    private final Subsystem drive;
+    private final PathConstraints constraints = new PathConstraints(Constants.PATHFINDING_MAX_VELOCITY,
+            Constants.PATHFINDING_MAX_ACCELERATION, Constants.PATHFINDING_MAX_ANGULAR_VELOCITY,
+            Constants.PATHFINDING_MAX_ANGULAR_ACCELERATION);
+    private final CachingPathfinder pathfinder = new CachingPathfinder(new LocalADStar());
+
+    /**
+     * Installs the pathfinder and starts warming it up. Create before
+     * AutoBuilder is configured, since that installs a pathfinder of its own
+     * if there is none yet.
+     *
+     * @param layout      The field's AprilTag layout.
+     * @param reefTargets The reef scoring poses.
+     * @param pose        Supplies the robot's field pose.
+     * @param drive       The drivetrain, required by the pathfinding commands.
+     */
+    public PathfindingPlanner(AprilTagFieldLayout layout, ReefTargets reefTargets, Supplier<Pose2d> pose,
+            Subsystem drive) {
+        this.reefTargets = reefTargets;
+        this.pose = pose;
+        this.drive = drive;
+
+        // Face the station from the same distance as the reef
+        Transform2d toIntakePose = new Transform2d(Constants.CORAL_STATION_DISTANCE.in(Units.Meters), 0,
+                Rotation2d.kPi);
+        List<Pose2d> stations = new ArrayList<>();
+        for (AprilTag tag : layout.getTags()) {
+            if (Utilities.isTagOnCoralStation(tag.ID))
+                stations.add(tag.pose.toPose2d().transformBy(toIntakePose));
+        }
+        coralStations = stations.toArray(new Pose2d[0]);
+
+        Pathfinding.setPathfinder(pathfinder);
+
+        if (!InputLog.isReplay()) {
+            Thread thread = new Thread(this::warmUp, "PathfindingWarmUp");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.start();
+        }
+    }
+
+    /**
+     * Pathfinds to a target on the reef face nearest the robot when the
+     * command starts. Works from a standstill or while moving.
+     *
+     * @param side What to line up with.
+     * @return The command. It ends near the target pose, so follow it with a
+     *         precise alignment.
+     */
+    public Command pathfindToReef(ReefTargets.Side side) {
+        return Commands.defer(() -> AutoBuilder.pathfindToPose(reefTargets.nearest(pose.get(), side), constraints),
+                Set.of(drive));
+    }
+
+    /**
+     * Pathfinds to the intake pose of the coral station nearest the robot when
+     * the command starts.
+     *
+     * @return The command.
+     */
+    public Command pathfindToCoralStation() {
+        return Commands.defer(() -> AutoBuilder.pathfindToPose(nearestCoralStation(pose.get()), constraints),
+                Set.of(drive));
+    }
+
+    /**
+     * @param robotPose The robot's field pose.
+     * @return The intake pose of the nearest coral station.
+     */
+    public Pose2d nearestCoralStation(Pose2d robotPose) {
+        Pose2d nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (Pose2d station : coralStations) {
+            double distance = station.getTranslation().getDistance(robotPose.getTranslation());
+            if (distance < nearestDistance) {
+                nearest = station;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /** @return Number of plans in the cache. */
+    public int getCachedPlanCount() {
+        return pathfinder.size();
+    }
+
+    /**
+     * Background thread. Plans the trips between each coral station and the
+     * branches of its reef.
+     */
+    private void warmUp() {
+        long start = System.nanoTime();
+        GoalEndState endState = new GoalEndState(0, Rotation2d.kZero);
+        for (Pose2d station : coralStations) {
+            int reef = reefTargets.nearestFace(station) / ReefTargets.FACES_PER_REEF;
+            for (int face = reef * ReefTargets.FACES_PER_REEF; face < (reef + 1)
+                    * ReefTargets.FACES_PER_REEF; face++) {
+                for (ReefTargets.Side side : new ReefTargets.Side[] { ReefTargets.Side.LEFT_BRANCH,
+                        ReefTargets.Side.RIGHT_BRANCH }) {
+                    Translation2d branch = reefTargets.get(face, side).getTranslation();
+                    if (!pathfinder.warmUp(station.getTranslation(), branch, constraints, endState)
+                            || !pathfinder.warmUp(branch, station.getTranslation(), constraints, endState))
+                        return;
+                }
+            }
+        }
+        DataLogManager.log(String.format("Pathfinding warm up planned %d trips in %.1f ms", pathfinder.size(),
+                (System.nanoTime() - start) / 1e6));
+    }
+
+    /**
+     * Puts a cache of plans in front of another pathfinder.
+     * <p>
+     * The pathfinding command calls this on the main thread. The warm up
+     * thread only uses the pathfinder behind it, and stops for good the first
+     * time the command sets a start or goal, so the two never mix up requests.
+     */
+    private static final class CachingPathfinder implements Pathfinder {
+        private final Pathfinder planner;
+        // Goal to start cell to plan
+        private final Map<Translation2d, Map<Integer, List<Waypoint>>> cache = new ConcurrentHashMap<>();
+        private final double cellSize = Constants.PATHFINDING_CACHE_CELL_SIZE.in(Units.Meters);
+
+        private boolean warmUpStopped;
+
+        private Translation2d start = Translation2d.kZero;
+        private Translation2d goal = Translation2d.kZero;
+        private boolean requestChanged;
+        // Plan to hand out next instead of asking the planner
+        private List<Waypoint> cachedPlan;
+        // Whether the current request was passed on to the planner, and whether
+        // its first plan still has to be cached
+        private boolean planning;
+        private boolean cacheNextPlan;
+
+        private CachingPathfinder(Pathfinder planner) {
+            this.planner = planner;
+        }
+
+        @Override
+        public synchronized boolean isNewPathAvailable() {
+            if (requestChanged) {
+                requestChanged = false;
+                cachedPlan = lookUp(start, goal);
+                planning = cachedPlan == null;
+                cacheNextPlan = planning;
+                if (planning) {
+                    planner.setStartPosition(start);
+                    planner.setGoalPosition(goal);
+                }
+            }
+            return cachedPlan != null || (planning && planner.isNewPathAvailable());
+        }
+
+        @Override
+        public synchronized PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+            if (cachedPlan != null) {
+                List<Waypoint> waypoints = new ArrayList<>(cachedPlan);
+                cachedPlan = null;
+
+                // Start from where the robot is, not where the plan was made
+                Waypoint first = waypoints.get(0);
+                Translation2d shift = start.minus(first.anchor());
+                waypoints.set(0, new Waypoint(null, start, first.nextControl().plus(shift)));
+                return new PathPlannerPath(waypoints, constraints, null, goalEndState);
+            }
+
+            PathPlannerPath path = planner.getCurrentPath(constraints, goalEndState);
+            if (cacheNextPlan && path != null) {
+                cacheNextPlan = false;
+                store(start, goal, path);
+            }
+            return path;
+        }
+
+        @Override
+        public synchronized void setStartPosition(Translation2d startPosition) {
+            warmUpStopped = true;
+            start = startPosition;
+            requestChanged = true;
+        }
+
+        @Override
+        public synchronized void setGoalPosition(Translation2d goalPosition) {
+            warmUpStopped = true;
+            goal = goalPosition;
+            requestChanged = true;
+        }
+
+        @Override
+        public synchronized void setDynamicObstacles(List<Pair<Translation2d, Translation2d>> obs,
+                Translation2d currentRobotPos) {
+            // Plans around other obstacles aren't worth keeping
+            warmUpStopped = true;
+            cache.clear();
+            cachedPlan = null;
+            cacheNextPlan = false;
+            if (!planning) {
+                planning = true;
+                planner.setGoalPosition(goal);
+            }
+            planner.setDynamicObstacles(obs, currentRobotPos);
+        }
+
+        private int size() {
+            int size = 0;
+            for (Map<Integer, List<Waypoint>> plans : cache.values()) {
+                size += plans.size();
+            }
+            return size;
+        }
+
+        /**
+         * Warm up thread. Plans one trip and caches it.
+         *
+         * @return False if warming up should stop.
+         */
+        private boolean warmUp(Translation2d from, Translation2d to, PathConstraints constraints,
+                GoalEndState endState) {
+            if (lookUp(from, to) != null)
+                return true;
+            synchronized (this) {
+                if (warmUpStopped || !DriverStation.isDisabled())
+                    return false;
+                planner.setStartPosition(from);
+                planner.setGoalPosition(to);
+            }
+
+            long deadline = System.currentTimeMillis() + WARM_UP_PLAN_TIMEOUT_MS;
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(WARM_UP_POLL_MS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+                synchronized (this) {
+                    if (warmUpStopped)
+                        return false;
+                    if (planner.isNewPathAvailable()) {
+                        PathPlannerPath path = planner.getCurrentPath(constraints, endState);
+                        if (path != null)
+                            store(from, to, path);
+                        return true;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private List<Waypoint> lookUp(Translation2d from, Translation2d to) {
+            Map<Integer, List<Waypoint>> plans = cache.get(to);
+            return plans == null ? null : plans.get(cell(from));
+        }
+
+        private void store(Translation2d from, Translation2d to, PathPlannerPath path) {
+            List<Waypoint> waypoints = path.getWaypoints();
+            if (waypoints.size() >= 2)
+                cache.computeIfAbsent(to, key -> new ConcurrentHashMap<>()).put(cell(from), List.copyOf(waypoints));
+        }
+
+        /** @return Index of the navgrid cell a point is in. */
+        private int cell(Translation2d point) {
+            return (int) Math.floor(point.getX() / cellSize) * 1024 + (int) Math.floor(point.getY() / cellSize);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.units.Units;
+import frc.robot.Constants;
+
+/**
+ * Scoring poses around both reefs, computed once from the field layout.
+ * <p>
+ * For each reef tag (see {@link Utilities#isTagOnReef(double)}) there is a
+ * pose in front of the left branch, the right branch and the algae between
+ * them, {@link Constants#REEF_SCORING_DISTANCE} out from the tag and facing
+ * it. Left and right are as seen from the robot facing the reef.
+ * <p>
+ * The faces of a reef are evenly spaced around its center, so the face
+ * nearest the robot is found from the robot's angle around the center
+ * instead of by searching, see {@link #nearest(Pose2d, Side)}.
+ */
+public class ReefTargets {
+    /** Number of faces on one reef. */
+    public static final int FACES_PER_REEF = 6;
+
+    private static final double SECTOR_RADIANS = 2 * Math.PI / FACES_PER_REEF;
+
+    /** What to line up with on a reef face. */
+    public enum Side {
+        LEFT_BRANCH,
+        RIGHT_BRANCH,
+        ALGAE
+    }
+
+    // Indexed by face. Faces 0 to 5 are one reef, 6 to 11 the other, each in
+    // order of their angle around the reef's center.
+    private final int[] tagIds;
+    private final Pose2d[] leftBranches;
+    private final Pose2d[] rightBranches;
+    private final Pose2d[] algae;
+
+    // Indexed by reef
+    private final double[] centerX = new double[2];
+    private final double[] centerY = new double[2];
+    private final double[] firstFaceAngle = new double[2];
+
+    /**
+     * @param layout The field's AprilTag layout.
+     * @throws IllegalArgumentException If the layout doesn't have two reefs of
+     *                                  six evenly spaced tags.
+     */
+    public ReefTargets(AprilTagFieldLayout layout) {
+        List<List<AprilTag>> reefs = new ArrayList<>();
+        reefs.add(new ArrayList<>());
+        reefs.add(new ArrayList<>());
+        for (AprilTag tag : layout.getTags()) {
+            if (Utilities.isTagOnReef(tag.ID))
+                reefs.get(tag.ID >= 17 ? 1 : 0).add(tag);
+        }
+
+        int faces = 2 * FACES_PER_REEF;
+        tagIds = new int[faces];
+        leftBranches = new Pose2d[faces];
+        rightBranches = new Pose2d[faces];
+        algae = new Pose2d[faces];
+
+        double distance = Constants.REEF_SCORING_DISTANCE.in(Units.Meters);
+        double branchOffset = Constants.REEF_BRANCH_OFFSET.in(Units.Meters);
+        Transform2d toScoringPose = new Transform2d(distance, 0, Rotation2d.kPi);
+        Transform2d toLeft = new Transform2d(0, branchOffset, Rotation2d.kZero);
+        Transform2d toRight = new Transform2d(0, -branchOffset, Rotation2d.kZero);
+
+        for (int reef = 0; reef < 2; reef++) {
+            List<AprilTag> tags = reefs.get(reef);
+            if (tags.size() != FACES_PER_REEF)
+                throw new IllegalArgumentException("Expected " + FACES_PER_REEF + " tags on reef " + reef
+                        + ", found " + tags.size());
+
+            for (AprilTag tag : tags) {
+                centerX[reef] += tag.pose.getX() / FACES_PER_REEF;
+                centerY[reef] += tag.pose.getY() / FACES_PER_REEF;
+            }
+            firstFaceAngle[reef] = angle(reef, tags.get(0).pose.getX(), tags.get(0).pose.getY());
+
+            for (AprilTag tag : tags) {
+                int face = reef * FACES_PER_REEF + sector(reef, tag.pose.getX(), tag.pose.getY());
+                if (algae[face] != null)
+                    throw new IllegalArgumentException("Reef tags " + tagIds[face] + " and " + tag.ID
+                            + " aren't evenly spaced");
+
+                Pose2d scoringPose = tag.pose.toPose2d().transformBy(toScoringPose);
+                tagIds[face] = tag.ID;
+                algae[face] = scoringPose;
+                leftBranches[face] = scoringPose.transformBy(toLeft);
+                rightBranches[face] = scoringPose.transformBy(toRight);
+            }
+        }
+    }
+
+    /**
+     * Finds the target on the reef face nearest the robot. Takes the same time
+     * wherever the robot is and doesn't allocate.
+     *
+     * @param robotPose The robot's field pose.
+     * @param side      What to line up with.
+     * @return The scoring pose.
+     */
+    public Pose2d nearest(Pose2d robotPose, Side side) {
+        return get(nearestFace(robotPose), side);
+    }
+
+    /**
+     * @param robotPose The robot's field pose.
+     * @return Index of the reef face nearest the robot.
+     */
+    public int nearestFace(Pose2d robotPose) {
+        double x = robotPose.getX();
+        double y = robotPose.getY();
+        double dx0 = x - centerX[0];
+        double dy0 = y - centerY[0];
+        double dx1 = x - centerX[1];
+        double dy1 = y - centerY[1];
+        int reef = dx0 * dx0 + dy0 * dy0 <= dx1 * dx1 + dy1 * dy1 ? 0 : 1;
+        return reef * FACES_PER_REEF + sector(reef, x, y);
+    }
+
+    /**
+     * @param face Reef face index, 0 to {@link #getFaceCount()} - 1.
+     * @param side What to line up with.
+     * @return The scoring pose.
+     */
+    public Pose2d get(int face, Side side) {
+        switch (side) {
+            case LEFT_BRANCH:
+                return leftBranches[face];
+            case RIGHT_BRANCH:
+                return rightBranches[face];
+            default:
+                return algae[face];
+        }
+    }
+
+    /**
+     * @param face Reef face index.
+     * @return ID of the tag on that face.
+     */
+    public int getTagId(int face) {
+        return tagIds[face];
+    }
+
+    /** @return Number of reef faces on the field. */
+    public int getFaceCount() {
+        return tagIds.length;
+    }
+
+    /**
+     * @return Index of the face whose sector around the reef's center a point
+     *         is in, counted from the face {@link #firstFaceAngle} was taken
+     *         from.
+     */
+    private int sector(int reef, double x, double y) {
+        double fromFirstFace = angle(reef, x, y) - firstFaceAngle[reef];
+        return Math.floorMod((int) Math.round(fromFirstFace / SECTOR_RADIANS), FACES_PER_REEF);
+    }
+
+    private double angle(int reef, double x, double y) {
+        return Math.atan2(y - centerY[reef], x - centerX[reef]);
+    }
+}
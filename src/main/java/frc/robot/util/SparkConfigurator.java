@@ -0,0 +1,135 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+import com.revrobotics.REVLibError;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SparkMaxConfig;
+import com.revrobotics.spark.config.SparkMaxConfigAccessor;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * Configures SparkMaxes without writing their flash on every boot.
+ * <p>
+ * A fingerprint of each controller's desired config (and its firmware
+ * version) is kept in {@link #FILE_NAME} on the RIO, by CAN ID. If the
+ * fingerprint is the same as last boot and the controller's current settings
+ * pass the caller's check, the config is only applied, not persisted.
+ * Otherwise it is persisted and the new fingerprint is saved. The check also
+ * catches a controller that was swapped for one with the same CAN ID.
+ * <p>
+ * Reading the settings and persisting both block on CAN, so call
+ * {@link #configure} from a {@link StartupOrchestrator} step. In simulation
+ * configs are always applied without persisting and nothing is saved.
+ */
+public final class SparkConfigurator {
+    /** File the fingerprints are kept in, in the operating directory. */
+    public static final String FILE_NAME = "spark-config-fingerprints.properties";
+
+    private static final File file = new File(Filesystem.getOperatingDirectory(), FILE_NAME);
+    private static Properties fingerprints;
+
+    private SparkConfigurator() {
+    }
+
+    /**
+     * Applies a config, persisting it only if it changed since last boot.
+     *
+     * @param spark  The controller.
+     * @param config Its full config. Reset safe parameters are always reset
+     *               first, so everything that matters must be in it.
+     * @param verify Checks the controller's current settings against the
+     *               config. Only needs to look at the settings that matter
+     *               most.
+     * @return The result of the configure call.
+     */
+    public static REVLibError configure(SparkMax spark, SparkMaxConfig config,
+            Predicate<SparkMaxConfigAccessor> verify) {
+        if (!RobotBase.isReal())
+            return spark.configure(config, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters);
+
+        String key = "can" + spark.getDeviceId();
+        String fingerprint = fingerprint(config, spark.getFirmwareVersion());
+
+        if (fingerprint.equals(getFingerprint(key))) {
+            if (verify.test(spark.configAccessor))
+                return spark.configure(config, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters);
+            DriverStation.reportWarning("SparkMax " + spark.getDeviceId()
+                    + " settings don't match its saved config, persisting it again", false);
+        }
+
+        REVLibError error = spark.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        setFingerprint(key, error == REVLibError.kOk ? fingerprint : null);
+        return error;
+    }
+
+    /**
+     * @return True if a setting read back from a controller, which stores
+     *         floats, equals the value it was set to.
+     */
+    public static boolean matches(double actual, double expected) {
+        return Math.abs(actual - expected) <= 1e-6 * Math.max(1, Math.abs(expected));
+    }
+
+    private static String fingerprint(SparkMaxConfig config, int firmwareVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(config.flatten().getBytes(StandardCharsets.UTF_8));
+            digest.update(Integer.toString(firmwareVersion).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static synchronized String getFingerprint(String key) {
+        return load().getProperty(key);
+    }
+
+    /**
+     * Saves or, if fingerprint is null, forgets a controller's fingerprint.
+     */
+    private static synchronized void setFingerprint(String key, String fingerprint) {
+        Properties properties = load();
+        if (fingerprint == null)
+            properties.remove(key);
+        else
+            properties.setProperty(key, fingerprint);
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "SparkMax config fingerprints, delete to persist every config again");
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to save " + file + ": " + e, false);
+        }
+    }
+
+    private static Properties load() {
+        if (fingerprints == null) {
+            fingerprints = new Properties();
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    fingerprints.load(in);
+                } catch (IOException e) {
+                    DriverStation.reportWarning("Failed to read " + file + ": " + e, false);
+                }
+            }
+        }
+        return fingerprints;
+    }
+}
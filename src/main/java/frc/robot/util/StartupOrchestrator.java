@@ -0,0 +1,195 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Runs the robot's startup work in parallel and times every step.
+ * <p>
+ * Slow steps that don't depend on each other (motor controller configuration,
+ * which blocks on CAN, file parsing, camera setup) are handed to
+ * {@link #submit(String, Callable)} and run on a small thread pool. Whoever
+ * needs a step's result calls {@link Step#get()}, which only waits for that
+ * step. {@link #time(String, Supplier)} times work done on the main thread,
+ * such as constructing a subsystem.
+ * <p>
+ * {@link #finish()} waits for every step, so the robot loop never starts with
+ * a controller half configured, and reports how long each step took in the
+ * data log and under the "Startup" NetworkTables table (in milliseconds).
+ */
+public final class StartupOrchestrator {
+    /** Number of steps that can run at once. */
+    public static final int THREADS = 4;
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("Startup");
+    private static final List<Step<?>> steps = new ArrayList<>();
+    private static final List<Timing> mainThreadTimings = new ArrayList<>();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final long startNanos = System.nanoTime();
+
+    private static ExecutorService executor;
+
+    private StartupOrchestrator() {
+    }
+
+    /**
+     * A step running in the background.
+     */
+    public static final class Step<T> {
+        private final Timing timing;
+        private final Future<T> future;
+
+        private Step(Timing timing, Future<T> future) {
+            this.timing = timing;
+            this.future = future;
+        }
+
+        /**
+         * Waits for the step to finish.
+         *
+         * @return The step's result, or empty if it failed or the wait was
+         *         interrupted. Either has been reported to the driver station
+         *         under the step's name.
+         */
+        public Optional<T> get() {
+            try {
+                return Optional.ofNullable(future.get());
+            } catch (ExecutionException e) {
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                DriverStation.reportError("Interrupted waiting for startup step " + timing.name, false);
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static final class Timing {
+        private final String name;
+        private volatile String thread = "";
+        private volatile long startNanos;
+        private volatile long durationNanos;
+        private volatile boolean failed;
+
+        private Timing(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Starts a step in the background.
+     *
+     * @param name Name the step is reported under.
+     * @param work The step. Exceptions are reported and make
+     *             {@link Step#get()} return empty.
+     */
+    public static synchronized <T> Step<T> submit(String name, Callable<T> work) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "Startup-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        Timing timing = new Timing(name);
+        Step<T> step = new Step<>(timing, executor.submit(() -> {
+            timing.thread = Thread.currentThread().getName();
+            timing.startNanos = System.nanoTime();
+            try {
+                return work.call();
+            } catch (Exception e) {
+                timing.failed = true;
+                DriverStation.reportError("Startup step " + name + " failed: " + e, e.getStackTrace());
+                throw e;
+            } finally {
+                timing.durationNanos = System.nanoTime() - timing.startNanos;
+            }
+        }));
+        steps.add(step);
+        return step;
+    }
+
+    /**
+     * Starts a step with no result in the background.
+     *
+     * @param name Name the step is reported under.
+     * @param work The step.
+     */
+    public static Step<Void> submit(String name, Runnable work) {
+        return submit(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs and times a step on the calling thread.
+     *
+     * @param name Name the step is reported under.
+     * @param work The step.
+     * @return The step's result.
+     */
+    public static <T> T time(String name, Supplier<T> work) {
+        Timing timing = new Timing(name);
+        timing.thread = Thread.currentThread().getName();
+        timing.startNanos = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            timing.durationNanos = System.nanoTime() - timing.startNanos;
+            synchronized (StartupOrchestrator.class) {
+                mainThreadTimings.add(timing);
+            }
+        }
+    }
+
+    /**
+     * Waits for every step, stops the thread pool and reports the timings.
+     * Call once at the end of startup.
+     */
+    public static synchronized void finish() {
+        for (Step<?> step : steps) {
+            step.get();
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+
+        long totalNanos = System.nanoTime() - startNanos;
+        StringBuilder text = new StringBuilder(String.format("Startup took %.1f ms", totalNanos / 1e6));
+        for (Timing timing : mainThreadTimings) {
+            report(timing, text);
+        }
+        for (Step<?> step : steps) {
+            report(step.timing, text);
+        }
+        table.getEntry("Total").setDouble(totalNanos / 1e6);
+        DataLogManager.log(text.toString());
+
+        steps.clear();
+        mainThreadTimings.clear();
+    }
+
+    private static void report(Timing timing, StringBuilder text) {
+        double startMs = (timing.startNanos - startNanos) / 1e6;
+        double durationMs = timing.durationNanos / 1e6;
+        text.append(String.format("%n  %-36s %-10s at %7.1f ms took %7.1f ms%s", timing.name, timing.thread, startMs,
+                durationMs, timing.failed ? " (failed)" : ""));
+        table.getEntry(timing.name).setDouble(durationMs);
+    }
+}
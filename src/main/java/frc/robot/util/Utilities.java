@@ -51,6 +51,16 @@ public class Utilities {
         return Units.Inches.of(rotations * (Math.PI * Constants.WHEEL_DIAMETER.in(Units.Inches)));
     }
 
+    /**
+     * Allocation free version of rotationsToDistance.
+     * 
+     * @param rotations Number of wheel motor rotations.
+     * @return The linear distance traveled by a wheel motor in meters.
+     */
+    public static double rotationsToMeters(double rotations) {
+        return rotations * DriveKinematics.METERS_PER_ROTATION;
+    }
+
     /**
      * Test a motor by running it at 25% speed.
      * 
@@ -66,6 +76,10 @@ public class Utilities {
         return (17 <= tagId && tagId <= 22) || (6 <= tagId && tagId <= 11);
     }
 
+    public static boolean isTagOnCoralStation(double tagId) {
+        return tagId == 1 || tagId == 2 || tagId == 12 || tagId == 13;
+    }
+
     private Utilities() {
     }
 }
@@ -0,0 +1,263 @@
+package frc.robot.util;
+
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.util.WPIUtilJNI;
+import frc.libs.SpscQueue;
+
+/**
+ * Receives every Limelight pose frame on a background thread, decodes and
+ * filters it there, and queues the accepted measurements for the main loop.
+ * <p>
+ * The thread blocks on a NetworkTables listener instead of polling, so a frame
+ * is seen even if several arrive between robot loops. Accepted measurements
+ * are handed over through a {@link SpscQueue}; the drive subsystem drains it
+ * with {@link #beginRead()}/{@link #commitRead()} every cycle.
+ */
+public class VisionIngest {
+    /** Number of measurements that can wait for the main loop. */
+    public static final int QUEUE_CAPACITY = 32;
+
+    /** MegaTag2 frames are ignored while turning faster than this. */
+    public static final double MAX_YAW_RATE_DEG_PER_SEC = 720;
+
+    /** MegaTag1 single tag frames are ignored above this ambiguity. */
+    public static final double MAX_SINGLE_TAG_AMBIGUITY = 0.7;
+
+    /** MegaTag1 single tag frames are ignored when the tag is further than this (meters). */
+    public static final double MAX_SINGLE_TAG_DISTANCE = 3;
+
+    /**
+     * An accepted vision measurement.
+     */
+    public static class Measurement implements InputLog.Inputs {
+        /** Struct schema of a logged measurement, in {@link #toLog()} order. */
+        public static final String SCHEMA = "double x;double y;double yawRadians;double timestampSeconds;"
+                + "int32 tagCount;double avgTagDist;double tagSpan;double maxAmbiguity;bool isMegaTag2;int32 camera";
+
+        public double x;
+        public double y;
+        public double yawRadians;
+        public double timestampSeconds;
+        public int tagCount;
+        public double avgTagDist;
+        public double tagSpan;
+        /** Highest ambiguity of the fiducials used, 0 if unknown. */
+        public double maxAmbiguity;
+        public boolean isMegaTag2;
+        /** Index of the camera in the order passed to the constructor. */
+        public int camera;
+
+        @Override
+        public void toLog() {
+            BinaryLogger.putDouble(x);
+            BinaryLogger.putDouble(y);
+            BinaryLogger.putDouble(yawRadians);
+            BinaryLogger.putDouble(timestampSeconds);
+            BinaryLogger.putInt(tagCount);
+            BinaryLogger.putDouble(avgTagDist);
+            BinaryLogger.putDouble(tagSpan);
+            BinaryLogger.putDouble(maxAmbiguity);
+            BinaryLogger.putBoolean(isMegaTag2);
+            BinaryLogger.putInt(camera);
+        }
+
+        @Override
+        public void fromLog(ByteBuffer record) {
+            x = record.getDouble();
+            y = record.getDouble();
+            yawRadians = record.getDouble();
+            timestampSeconds = record.getDouble();
+            tagCount = record.getInt();
+            avgTagDist = record.getDouble();
+            tagSpan = record.getDouble();
+            maxAmbiguity = record.getDouble();
+            isMegaTag2 = record.get() != 0;
+            camera = record.getInt();
+        }
+    }
+
+    private final boolean megaTag2;
+    private final String[] cameras;
+    private final DoubleArraySubscriber[] subscribers;
+    private final int[] listenerHandles;
+    private final LimelightHelpers.PoseEstimateBuffer[] estimates;
+
+    private final NetworkTableListenerPoller poller;
+    private final SpscQueue<Measurement> queue = new SpscQueue<>(QUEUE_CAPACITY, Measurement::new);
+    private final Thread thread;
+
+    private volatile double yawRateDegPerSec = 0;
+    private volatile long droppedCount = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a vision ingest for the given cameras. Call {@link #start()} to
+     * begin receiving frames.
+     *
+     * @param megaTag2 True to use the MegaTag2 pose, false for MegaTag1.
+     * @param cameras  Names of the Limelights.
+     */
+    public VisionIngest(boolean megaTag2, String... cameras) {
+        this.megaTag2 = megaTag2;
+        this.cameras = cameras;
+        this.subscribers = new DoubleArraySubscriber[cameras.length];
+        this.listenerHandles = new int[cameras.length];
+        this.estimates = new LimelightHelpers.PoseEstimateBuffer[cameras.length];
+
+        NetworkTableInstance inst = NetworkTableInstance.getDefault();
+        this.poller = new NetworkTableListenerPoller(inst);
+
+        String topic = megaTag2 ? "botpose_orb_wpiblue" : "botpose_wpiblue";
+        for (int i = 0; i < cameras.length; i++) {
+            subscribers[i] = LimelightHelpers.getLimelightNTTable(cameras[i]).getDoubleArrayTopic(topic)
+                    .subscribe(new double[0], PubSubOption.keepDuplicates(true), PubSubOption.pollStorage(10));
+            listenerHandles[i] = poller.addListener(subscribers[i], EnumSet.of(NetworkTableEvent.Kind.kValueAll));
+            estimates[i] = new LimelightHelpers.PoseEstimateBuffer();
+        }
+
+        this.thread = new Thread(this::run, "VisionIngest");
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.NORM_PRIORITY - 1);
+    }
+
+    /**
+     * Starts the background thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread and releases the NetworkTables handles.
+     */
+    public void close() {
+        closed = true;
+        poller.close();
+        for (DoubleArraySubscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Main loop only. Gives the filter the robot's current turn rate.
+     *
+     * @param degPerSec Yaw rate in degrees per second.
+     */
+    public void setYawRate(double degPerSec) {
+        yawRateDegPerSec = degPerSec;
+    }
+
+    /**
+     * Main loop only. Gets the oldest accepted measurement.
+     *
+     * @return The measurement, or null if there are none. Call
+     *         {@link #commitRead()} when done with it.
+     */
+    public Measurement beginRead() {
+        return queue.beginRead();
+    }
+
+    /**
+     * Main loop only. Releases the measurement from {@link #beginRead()}.
+     */
+    public void commitRead() {
+        queue.commitRead();
+    }
+
+    /**
+     * @param camera Index of a camera.
+     * @return Name of that camera.
+     */
+    public String getCameraName(int camera) {
+        return cameras[camera];
+    }
+
+    /**
+     * @return Number of accepted measurements dropped because the main loop
+     *         didn't drain the queue in time.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void run() {
+        while (!closed) {
+            // Sleep until a frame arrives or the poller is closed
+            try {
+                WPIUtilJNI.waitForObject(poller.getHandle());
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            NetworkTableEvent[] events = poller.readQueue();
+
+            for (NetworkTableEvent event : events) {
+                if (event.valueData == null)
+                    continue;
+
+                int camera = cameraIndex(event.listener);
+                if (camera < 0)
+                    continue;
+
+                var value = event.valueData.value;
+                LimelightHelpers.PoseEstimateBuffer estimate = estimates[camera];
+                if (LimelightHelpers.decodePoseEstimate(value.getDoubleArray(), value.getTime(), megaTag2, estimate)
+                        && accept(estimate))
+                    enqueue(camera, estimate);
+            }
+        }
+    }
+
+    private int cameraIndex(int listener) {
+        for (int i = 0; i < listenerHandles.length; i++) {
+            if (listenerHandles[i] == listener)
+                return i;
+        }
+        return -1;
+    }
+
+    private boolean accept(LimelightHelpers.PoseEstimateBuffer estimate) {
+        if (estimate.tagCount == 0)
+            return false;
+
+        if (estimate.isMegaTag2)
+            return Math.abs(yawRateDegPerSec) <= MAX_YAW_RATE_DEG_PER_SEC;
+
+        if (estimate.tagCount == 1 && estimate.fiducialCount == 1) {
+            LimelightHelpers.RawFiducial fiducial = estimate.rawFiducials[0];
+            if (fiducial.ambiguity > MAX_SINGLE_TAG_AMBIGUITY || fiducial.distToCamera > MAX_SINGLE_TAG_DISTANCE)
+                return false;
+        }
+        return true;
+    }
+
+    private void enqueue(int camera, LimelightHelpers.PoseEstimateBuffer estimate) {
+        Measurement m = queue.beginWrite();
+        if (m == null) {
+            droppedCount++;
+            return;
+        }
+
+        m.x = estimate.x;
+        m.y = estimate.y;
+        m.yawRadians = estimate.yawRadians;
+        m.timestampSeconds = estimate.timestampSeconds;
+        m.tagCount = estimate.tagCount;
+        m.avgTagDist = estimate.avgTagDist;
+        m.tagSpan = estimate.tagSpan;
+        m.maxAmbiguity = 0;
+        for (int i = 0; i < estimate.fiducialCount; i++) {
+            m.maxAmbiguity = Math.max(m.maxAmbiguity, estimate.rawFiducials[i].ambiguity);
+        }
+        m.isMegaTag2 = estimate.isMegaTag2;
+        m.camera = camera;
+        queue.commitWrite();
+    }
+}
@@ -0,0 +1,90 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * Decides how much the pose estimator should trust a vision measurement.
+ * <p>
+ * Standard deviations grow with distance to the tags, single tag ambiguity and
+ * robot speed, and shrink with the number of tags and how far apart they are.
+ * Results are rounded to {@link #STEP} so that consecutive measurements
+ * usually produce the same values, letting the caller skip recomputing the
+ * estimator's Kalman gains when nothing changed.
+ */
+public final class VisionWeighting {
+    /** x/y std dev (meters) of a single tag seen from 1 meter while stopped. */
+    public static final double XY_BASE = 0.3;
+
+    /** Rotation std dev (radians) of a multi tag MegaTag1 pose seen from 1 meter. */
+    public static final double THETA_BASE = 0.5;
+
+    /** Std dev used when a value shouldn't be trusted at all. */
+    public static final double UNTRUSTED = 9999999;
+
+    /** Extra std dev per meter per second of robot speed (latency and motion blur). */
+    public static final double SPEED_FACTOR = 0.5;
+
+    /** Extra std dev per radian per second of robot turn rate. */
+    public static final double TURN_FACTOR = 0.3;
+
+    /** Extra std dev per unit of single tag ambiguity. */
+    public static final double AMBIGUITY_FACTOR = 4;
+
+    /** Std devs are rounded up to a multiple of this. */
+    public static final double STEP = 0.05;
+
+    /**
+     * Computes the std devs for a measurement.
+     *
+     * @param tagCount       Number of tags used for the pose.
+     * @param avgTagDist     Average distance to the tags in meters.
+     * @param tagSpan        Distance between the furthest apart tags in meters.
+     * @param maxAmbiguity   Highest ambiguity of the tags used [0..1].
+     * @param isMegaTag2     True if the pose came from MegaTag2, whose rotation
+     *                       is just our own gyro.
+     * @param speed          Robot translational speed in meters per second.
+     * @param turnRate       Robot turn rate in radians per second.
+     * @param out            Receives [x, y, theta] std devs.
+     * @return True if the values in out changed.
+     */
+    public static boolean compute(int tagCount, double avgTagDist, double tagSpan, double maxAmbiguity,
+            boolean isMegaTag2, double speed, double turnRate, Matrix<N3, N1> out) {
+        double count = Math.max(tagCount, 1);
+        double distFactor = 1 + avgTagDist * avgTagDist;
+        double motionFactor = 1 + SPEED_FACTOR * Math.abs(speed) + TURN_FACTOR * Math.abs(turnRate);
+
+        double xy = XY_BASE * distFactor * motionFactor / count;
+        if (tagCount > 1)
+            xy /= 1 + tagSpan;
+        else
+            xy *= 1 + AMBIGUITY_FACTOR * maxAmbiguity;
+
+        double theta;
+        if (isMegaTag2 || tagCount < 2)
+            theta = UNTRUSTED;
+        else
+            theta = THETA_BASE * distFactor * motionFactor / count;
+
+        xy = quantize(xy);
+        theta = quantize(theta);
+
+        boolean changed = out.get(0, 0) != xy || out.get(2, 0) != theta;
+        if (changed) {
+            out.set(0, 0, xy);
+            out.set(1, 0, xy);
+            out.set(2, 0, theta);
+        }
+        return changed;
+    }
+
+    private static double quantize(double value) {
+        if (value >= UNTRUSTED)
+            return UNTRUSTED;
+        return Math.max(STEP, Math.ceil(value / STEP) * STEP);
+    }
+
+    private VisionWeighting() {
+    }
+}
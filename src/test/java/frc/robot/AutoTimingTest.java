@@ -0,0 +1,113 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.LoopProfiler;
+
+/**
+ * Runs every autonomous routine in simulation, without a driver station and
+ * as fast as the computer allows, and checks that each one finishes within
+ * the autonomous period.
+ * <p>
+ * The robot is booted under the simulated HAL with the clock paused. For each
+ * auto the clock is stepped one 20 ms loop at a time until the auto command
+ * finishes or the autonomous period runs out. The total time and the time
+ * spent in every profiled command (each step of the autos in Autos, and the
+ * PathPlanner named commands) are printed.
+ * <p>
+ * Tagged so it stays out of ./gradlew test, since not every auto is meant to
+ * finish early. Run with ./gradlew autoTiming, adding
+ * -Pautos="limlit,Move forward" for specific chooser options.
+ */
+@Tag("autoTiming")
+class AutoTimingTest {
+	/** Length of the autonomous period. */
+	static final double AUTO_PERIOD_SECONDS = 15;
+
+	private static final double LOOP_SECONDS = 0.02;
+
+	private static Robot robot;
+
+	@BeforeAll
+	static void bootRobot() {
+		assertTrue(HAL.initialize(500, 0), "Failed to initialize the HAL");
+
+		SimHooks.pauseTiming();
+		DriverStationSim.setDsAttached(true);
+		DriverStationSim.setAutonomous(true);
+		DriverStationSim.setEnabled(false);
+		DriverStationSim.notifyNewData();
+
+		robot = new Robot();
+		// One loop so the chooser publishes its options
+		step();
+	}
+
+	@TestFactory
+	Stream<DynamicTest> everyAutoFinishesInTime() {
+		String selected = System.getProperty("autos", "");
+		String[] autos = selected.isEmpty() ? robot.getContainer().getAutoNames() : selected.split(",");
+		assertTrue(autos.length > 0, "The auto chooser has no options");
+		return Arrays.stream(autos).map(String::trim)
+				.map(auto -> DynamicTest.dynamicTest(auto, () -> run(auto)));
+	}
+
+	/**
+	 * Runs one auto from the chooser, prints its timing and checks it finished
+	 * within the autonomous period.
+	 */
+	private static void run(String auto) {
+		robot.getContainer().selectAuto(auto);
+		CommandScheduler.getInstance().cancelAll();
+		step();
+		LoopProfiler.resetCommandTimes();
+
+		long startNanos = System.nanoTime();
+		double start = Timer.getFPGATimestamp();
+		DriverStationSim.setEnabled(true);
+		DriverStationSim.notifyNewData();
+		do {
+			step();
+		} while (robot.isAutonomousCommandRunning() && Timer.getFPGATimestamp() - start < AUTO_PERIOD_SECONDS);
+
+		double duration = Timer.getFPGATimestamp() - start;
+		boolean finished = !robot.isAutonomousCommandRunning();
+
+		DriverStationSim.setEnabled(false);
+		DriverStationSim.notifyNewData();
+		step();
+
+		System.out.printf("%n=== %s ===%n", auto);
+		System.out.printf("%s in %.2f s (%.2f s real time)%n", finished ? "Finished" : "Stopped", duration,
+				(System.nanoTime() - startNanos) / 1e9);
+		for (LoopProfiler.CommandTime time : LoopProfiler.getCommandTimes()) {
+			System.out.printf("  %-40s %3d run(s) %7.2f s%n", time.getName(), time.getRuns(), time.getTotalSeconds());
+			assertTrue(time.getTotalSeconds() <= duration + LOOP_SECONDS,
+					time.getName() + " ran longer than the whole auto");
+		}
+
+		assertTrue(finished, auto + " did not finish within " + AUTO_PERIOD_SECONDS + " s");
+	}
+
+	private static void step() {
+		SimHooks.stepTiming(LOOP_SECONDS);
+		robot.loopFunc();
+	}
+}